@@ -15,6 +15,8 @@ set "SOURCES="
 for /r "src\main\java" %%f in (*.java) do (
   set "SOURCES=!SOURCES! %%f"
 )
+rem 顶点批次和字形图集与主工程共用 ..\src\gpu\java 中的实现
+set "SOURCES=!SOURCES! ..\src\gpu\java\com\gameengine\graphics\VertexBatch.java ..\src\gpu\java\com\gameengine\graphics\GlyphTextureAtlas.java"
 
 rem 编译
 echo Compiling Java sources...
@@ -9,6 +9,8 @@ if [ -d "lib/lwjgl" ]; then
   LWJGL_CP=".:lib/lwjgl/*"
 fi
 SOURCES=$(find src/main/java -type f -name "*.java")
+# 顶点批次和字形图集与主工程共用 ../src/gpu/java 中的实现
+SOURCES="$SOURCES ../src/gpu/java/com/gameengine/graphics/VertexBatch.java ../src/gpu/java/com/gameengine/graphics/GlyphTextureAtlas.java"
 javac -d build/classes -cp "$LWJGL_CP" $SOURCES
 
 LWJGL_DIR="lib/lwjgl"
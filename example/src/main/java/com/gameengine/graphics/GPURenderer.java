@@ -10,24 +10,36 @@ import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
 import java.awt.*;
-import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import org.lwjgl.BufferUtils;
-import java.util.HashMap;
-import java.util.Map;
 
+/**
+ * 基于 OpenGL 2.1 的渲染器
+ *
+ * 矩形、圆、线和文字都展开成三角形写入 {@link VertexBatch}。图形采样字形图集中的
+ * 白色纹素，文字采样字形 UV，全部共用一张纹理，只在批次写满或帧结束时提交。
+ */
 public class GPURenderer implements IRenderer {
+    private static final int BATCH_VERTICES = 6 * 16384;
+    private static final int MAX_TABLE_SEGMENTS = 256;
+    private static final float LINE_WIDTH = 2.5f;
+
     private int width;
     private int height;
     private String title;
     private InputManager inputManager;
     private boolean initialized;
     private long window;
-    private Map<Character, Integer> charTextures;
     private Font font;
     private int fontSize;
-    private boolean texturesPreloaded;
+    private GlyphTextureAtlas atlas;
+    private float whiteU;
+    private float whiteV;
+    private VertexBatch batch;
+    // 按段数缓存的单位圆 cos/sin 表，长度为 segments + 1
+    private final float[][] circleCos = new float[MAX_TABLE_SEGMENTS + 1][];
+    private final float[][] circleSin = new float[MAX_TABLE_SEGMENTS + 1][];
     private static final String PRELOAD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+-=[]{}|;:,.<>?/~` ";
 
     public GPURenderer(int width, int height, String title) {
@@ -37,10 +49,8 @@ public class GPURenderer implements IRenderer {
         this.inputManager = InputManager.getInstance();
         this.initialized = false;
         this.window = 0;
-        this.charTextures = new HashMap<>();
         this.font = new Font(Font.MONOSPACED, Font.BOLD, 32);
         this.fontSize = 32;
-        this.texturesPreloaded = false;
 
         initialize();
     }
@@ -105,6 +115,7 @@ public class GPURenderer implements IRenderer {
                 System.err.println("OpenGL上下文无效：无法获取版本/渲染器字符串");
             }
             
+            batch = new VertexBatch(BATCH_VERTICES);
             initialized = true;
             
             int[] maxTex = new int[1];
@@ -117,8 +128,11 @@ public class GPURenderer implements IRenderer {
             System.out.println("渲染器: " + glRenderer);
             System.out.println("最大纹理尺寸: " + maxTex[0]);
             
-            // 仅在上下文确认有效后再预加载纹理
-            preloadTextures();
+            // 仅在上下文确认有效后再创建字形图集
+            atlas = new GlyphTextureAtlas(font, PRELOAD_CHARS);
+            whiteU = atlas.getWhiteU();
+            whiteV = atlas.getWhiteV();
+            GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
         } catch (Exception e) {
             throw new RuntimeException("GPU渲染器初始化失败: " + e.getMessage(), e);
         }
@@ -170,11 +184,13 @@ public class GPURenderer implements IRenderer {
         GL11.glDisable(GL11.GL_CULL_FACE);
         GL11.glDisable(GL11.GL_COLOR_MATERIAL);
         
+        batch.begin();
     }
     
     @Override
     public void endFrame() {
         if (!initialized) return;
+        batch.flush();
         GLFW.glfwSwapBuffers(window);
     }
     
@@ -182,263 +198,101 @@ public class GPURenderer implements IRenderer {
     public void drawRect(float x, float y, float w, float h, float r, float g, float b, float a) {
         if (!initialized) return;
         
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(x, y);
-        GL11.glVertex2f(x + w, y);
-        GL11.glVertex2f(x + w, y + h);
-        GL11.glVertex2f(x, y + h);
-        GL11.glEnd();
-        int err = GL11.glGetError();
-        if (err != GL11.GL_NO_ERROR) {
-            System.err.println("[GPURenderer] drawRect GL error: 0x" + Integer.toHexString(err));
-        }
+        batch.setTexture(atlas.getTexture());
+        batch.quad(x, y, x + w, y + h, whiteU, whiteV, whiteU, whiteV, VertexBatch.pack(r, g, b, a));
     }
     
     @Override
     public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
-        if (!initialized) return;
+        if (!initialized || segments < 3) return;
         
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_TRIANGLE_FAN);
-        GL11.glVertex2f(x, y);
+        float[] cos = cosTable(segments);
+        float[] sin = circleSin[Math.min(segments, MAX_TABLE_SEGMENTS)];
+        int steps = cos.length - 1;
+        int rgba = VertexBatch.pack(r, g, b, a);
         
-        for (int i = 0; i <= segments; i++) {
-            float angle = (float) (i * 2.0 * Math.PI / segments);
-            float px = x + (float) (radius * Math.cos(angle));
-            float py = y + (float) (radius * Math.sin(angle));
-            GL11.glVertex2f(px, py);
+        batch.setTexture(atlas.getTexture());
+        for (int i = 0; i < steps; i++) {
+            batch.ensure(3);
+            batch.vertex(x, y, whiteU, whiteV, rgba);
+            batch.vertex(x + radius * cos[i], y + radius * sin[i], whiteU, whiteV, rgba);
+            batch.vertex(x + radius * cos[i + 1], y + radius * sin[i + 1], whiteU, whiteV, rgba);
         }
-        GL11.glEnd();
     }
     
     @Override
     public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
         if (!initialized) return;
         
-        GL11.glLineWidth(2.5f);
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_LINES);
-        GL11.glVertex2f(x1, y1);
-        GL11.glVertex2f(x2, y2);
-        GL11.glEnd();
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        if (len < 0.001f) return;
+        
+        // 线段展开为宽 LINE_WIDTH 的四边形
+        float scale = LINE_WIDTH * 0.5f / len;
+        float nx = -dy * scale;
+        float ny = dx * scale;
+        int rgba = VertexBatch.pack(r, g, b, a);
+        
+        batch.setTexture(atlas.getTexture());
+        batch.ensure(6);
+        batch.vertex(x1 - nx, y1 - ny, whiteU, whiteV, rgba);
+        batch.vertex(x1 + nx, y1 + ny, whiteU, whiteV, rgba);
+        batch.vertex(x2 + nx, y2 + ny, whiteU, whiteV, rgba);
+        batch.vertex(x1 - nx, y1 - ny, whiteU, whiteV, rgba);
+        batch.vertex(x2 + nx, y2 + ny, whiteU, whiteV, rgba);
+        batch.vertex(x2 - nx, y2 - ny, whiteU, whiteV, rgba);
+    }
+    
+    /**
+     * 获取段数对应的 cos 表（同时生成 sin 表），段数超过上限时按上限处理
+     */
+    private float[] cosTable(int segments) {
+        int n = Math.min(segments, MAX_TABLE_SEGMENTS);
+        float[] cos = circleCos[n];
+        if (cos == null) {
+            cos = new float[n + 1];
+            float[] sin = new float[n + 1];
+            for (int i = 0; i <= n; i++) {
+                double angle = i * 2.0 * Math.PI / n;
+                cos[i] = (float) Math.cos(angle);
+                sin[i] = (float) Math.sin(angle);
+            }
+            circleCos[n] = cos;
+            circleSin[n] = sin;
+        }
+        return cos;
     }
     
     @Override
     public void drawText(float x, float y, String text, float r, float g, float b, float a) {
         if (!initialized || text == null || text.isEmpty()) return;
         
-        if (!texturesPreloaded) {
-            preloadTextures();
-        }
-        
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-        
-        float currentX = x;
-        float charHeight = fontSize;
-        float charWidth = fontSize * 0.6f;
-        float spacing = 1.0f;
+        int rgba = VertexBatch.pack(r, g, b, a);
+        int padding = atlas.getPadding();
+        float cellHeight = atlas.getCellHeight();
+        // y 是文字块顶部，字形行在 fontSize 高度内垂直居中
+        float top = y + (fontSize - (cellHeight - padding * 2)) * 0.5f - padding;
+        float penX = x;
         
+        batch.setTexture(atlas.getTexture());
         for (int i = 0; i < text.length(); i++) {
             char c = text.charAt(i);
-            if (c == ' ') {
-                currentX += charWidth * 0.5f;
+            int glyph = atlas.glyph(c);
+            if (glyph < 0) {
+                penX += atlas.getFallbackAdvance(c);
                 continue;
             }
-            
-            int textureId = getCharTexture(c);
-            if (textureId > 0) {
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-                GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
-                GL11.glColor4f(r, g, b, a);
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(0.0f, 0.0f);
-                GL11.glVertex2f(currentX, y);
-                GL11.glTexCoord2f(1.0f, 0.0f);
-                GL11.glVertex2f(currentX + charWidth, y);
-                GL11.glTexCoord2f(1.0f, 1.0f);
-                GL11.glVertex2f(currentX + charWidth, y + charHeight);
-                GL11.glTexCoord2f(0.0f, 1.0f);
-                GL11.glVertex2f(currentX, y + charHeight);
-                GL11.glEnd();
+            if (c != ' ') {
+                float left = penX - padding;
+                batch.quad(left, top, left + atlas.getCellWidth(glyph), top + cellHeight,
+                           atlas.getU0(glyph), atlas.getV0(glyph), atlas.getU1(glyph), atlas.getV1(glyph), rgba);
             }
-            
-            currentX += charWidth + spacing;
+            penX += atlas.getAdvance(glyph);
         }
-        
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
     }
     
-    private void preloadTextures() {
-        if (!initialized || texturesPreloaded) return;
-        
-        GLFW.glfwMakeContextCurrent(window);
-        
-        int loaded = 0;
-        int failed = 0;
-        
-        for (int i = 0; i < PRELOAD_CHARS.length(); i++) {
-            char c = PRELOAD_CHARS.charAt(i);
-            if (c == ' ') continue;
-            
-            if (!charTextures.containsKey(c)) {
-                int error = GL11.glGetError();
-                while (error != GL11.GL_NO_ERROR) {
-                    error = GL11.glGetError();
-                }
-                
-                int textureId = createCharTexture(c);
-                if (textureId > 0) {
-                    charTextures.put(c, textureId);
-                    loaded++;
-                } else {
-                    failed++;
-                }
-            }
-        }
-        
-        texturesPreloaded = true;
-        System.out.println("预加载字符纹理完成: " + loaded + " 成功, " + failed + " 失败");
-    }
-    
-    private int getCharTexture(char c) {
-        if (charTextures.containsKey(c)) {
-            return charTextures.get(c);
-        }
-        
-        if (!texturesPreloaded) {
-            preloadTextures();
-            if (charTextures.containsKey(c)) {
-                return charTextures.get(c);
-            }
-        }
-        
-        if (!initialized) {
-            return 0;
-        }
-        
-        GLFW.glfwMakeContextCurrent(window);
-        
-        int error = GL11.glGetError();
-        while (error != GL11.GL_NO_ERROR) {
-            error = GL11.glGetError();
-        }
-        
-        int textureId = createCharTexture(c);
-        if (textureId > 0) {
-            charTextures.put(c, textureId);
-        }
-        return textureId;
-    }
-    
-    private int createCharTexture(char c) {
-        try {
-            BufferedImage img = new BufferedImage(fontSize, fontSize, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2d = img.createGraphics();
-            
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            g2d.setComposite(AlphaComposite.Clear);
-            g2d.fillRect(0, 0, fontSize, fontSize);
-            
-            g2d.setComposite(AlphaComposite.SrcOver);
-            g2d.setColor(new Color(255, 255, 255, 255));
-            g2d.setFont(font);
-            FontMetrics fm = g2d.getFontMetrics();
-            int x = (fontSize - fm.charWidth(c)) / 2;
-            int y = (fontSize - fm.getHeight()) / 2 + fm.getAscent();
-            g2d.drawString(String.valueOf(c), x, y);
-            g2d.dispose();
-            
-            int[] pixels = new int[fontSize * fontSize];
-            img.getRGB(0, 0, fontSize, fontSize, pixels, 0, fontSize);
-            
-            ByteBuffer buffer = ByteBuffer.allocateDirect(fontSize * fontSize * 4);
-            for (int i = 0; i < pixels.length; i++) {
-                int pixel = pixels[i];
-                buffer.put((byte) ((pixel >> 16) & 0xFF));
-                buffer.put((byte) ((pixel >> 8) & 0xFF));
-                buffer.put((byte) (pixel & 0xFF));
-                buffer.put((byte) ((pixel >> 24) & 0xFF));
-            }
-            buffer.flip();
-            
-            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
-            GL11.glEnable(GL11.GL_TEXTURE_2D);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            
-            int prevError = GL11.glGetError();
-            while (prevError != GL11.GL_NO_ERROR) {
-                System.err.println("Clearing OpenGL error before genTextures for '" + c + "': " + Integer.toHexString(prevError));
-                prevError = GL11.glGetError();
-            }
-            
-            int textureId;
-            try {
-                IntBuffer ids = BufferUtils.createIntBuffer(1);
-                GL11.glGenTextures(ids);
-                textureId = ids.get(0);
-            } catch (Throwable t) {
-                textureId = GL11.glGenTextures();
-            }
-            
-            if (textureId <= 0) {
-                int genError = GL11.glGetError();
-                System.err.println("glGenTextures returned 0 or negative for char '" + c + "'");
-                if (genError != GL11.GL_NO_ERROR) {
-                    System.err.println("OpenGL error code: 0x" + Integer.toHexString(genError));
-                } else {
-                    System.err.println("No OpenGL error reported, but textureId is invalid. Possible causes:");
-                    System.err.println("  - OpenGL context not properly initialized");
-                    System.err.println("  - Reached texture limit");
-                    System.err.println("  - Graphics driver issue");
-                }
-                return 0;
-            }
-            
-            int genError = GL11.glGetError();
-            if (genError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error after glGenTextures for '" + c + "': 0x" + Integer.toHexString(genError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
-            }
-            
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-            
-            int bindError = GL11.glGetError();
-            if (bindError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error binding texture for '" + c + "': " + Integer.toHexString(bindError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
-            }
-            
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
-            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, fontSize, fontSize, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, buffer);
-            
-            int texError = GL11.glGetError();
-            if (texError != GL11.GL_NO_ERROR) {
-                System.err.println("OpenGL error uploading texture data for '" + c + "': " + Integer.toHexString(texError));
-                GL11.glDeleteTextures(textureId);
-                return 0;
-            }
-            
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            GL11.glDisable(GL11.GL_TEXTURE_2D);
-            
-            return textureId;
-        } catch (Exception e) {
-            System.err.println("Exception creating texture for char '" + c + "': " + e.getMessage());
-            e.printStackTrace();
-            return 0;
-        }
-    }
-
     private int createTestTexture() {
         try {
             ByteBuffer buf = BufferUtils.createByteBuffer(4 * 4);
@@ -472,45 +326,6 @@ public class GPURenderer implements IRenderer {
         }
     }
     
-    private void drawThickLine(float x1, float y1, float x2, float y2, float thickness, float r, float g, float b, float a) {
-        float dx = x2 - x1;
-        float dy = y2 - y1;
-        float len = (float) Math.sqrt(dx * dx + dy * dy);
-        if (len < 0.001f) {
-            return;
-        }
-        
-        float halfThick = thickness * 0.5f;
-        float nx = 0.0f, ny = 0.0f;
-        
-        if (Math.abs(dx) < 0.001f) {
-            nx = halfThick;
-            ny = 0.0f;
-        } else if (Math.abs(dy) < 0.001f) {
-            nx = 0.0f;
-            ny = halfThick;
-        } else {
-            float invLen = 1.0f / len;
-            nx = -dy * invLen * halfThick;
-            ny = dx * invLen * halfThick;
-        }
-        
-        GL11.glPushMatrix();
-        GL11.glLoadIdentity();
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
-        GL11.glDisable(GL11.GL_LIGHTING);
-        GL11.glColor4f(r, g, b, a);
-        GL11.glBegin(GL11.GL_TRIANGLE_STRIP);
-        GL11.glVertex2f(x1 - nx, y1 - ny);
-        GL11.glVertex2f(x1 + nx, y1 + ny);
-        GL11.glVertex2f(x2 - nx, y2 - ny);
-        GL11.glVertex2f(x2 + nx, y2 + ny);
-        GL11.glEnd();
-        GL11.glPopMatrix();
-    }
-    
-    
-    
     @Override
     public boolean shouldClose() {
         if (!initialized) return false;
@@ -529,12 +344,14 @@ public class GPURenderer implements IRenderer {
     
     @Override
     public void cleanup() {
-        for (Integer textureId : charTextures.values()) {
-            if (textureId > 0) {
-                GL11.glDeleteTextures(textureId);
-            }
+        if (batch != null) {
+            batch.dispose();
+            batch = null;
+        }
+        if (atlas != null) {
+            atlas.dispose();
+            atlas = null;
         }
-        charTextures.clear();
         
         if (window != MemoryUtil.NULL) {
             GLFW.glfwDestroyWindow(window);
@@ -11,9 +11,12 @@ if [ -d "lib/lwjgl" ]; then
   LWJGL_CP=".:lib/lwjgl/*"
 fi
 
-# Compile
+# Compile (the GPU renderer in src/gpu/java is only built when LWJGL is present)
 echo "Compiling sources..."
 SOURCES=$(find src/main/java -type f -name "*.java")
+if [ -d "lib/lwjgl" ]; then
+  SOURCES="$SOURCES $(find src/gpu/java -type f -name "*.java")"
+fi
 javac -d build/classes -cp "$LWJGL_CP" $SOURCES
 
 # Setup Runtime Classpath
@@ -47,7 +50,7 @@ fi
 
 echo "Starting Game..."
 if [[ "$OS" == Darwin* ]]; then
-  exec java -XstartOnFirstThread $JAVA_FLAGS -cp "$CLASSPATH" com.gameengine.example.Main
+  exec java -XstartOnFirstThread $JAVA_FLAGS -cp "$CLASSPATH" com.gameengine.example.Main "$@"
 else
-  exec java $JAVA_FLAGS -cp "$CLASSPATH" com.gameengine.example.Main
+  exec java $JAVA_FLAGS -cp "$CLASSPATH" com.gameengine.example.Main "$@"
 fi
@@ -0,0 +1,386 @@
+package com.gameengine.graphics;
+
+import com.gameengine.input.InputManager;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.glfw.GLFWErrorCallback;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.nio.IntBuffer;
+
+/**
+ * 基于 OpenGL 2.1 的渲染器（LWJGL + GLFW）
+ *
+ * 矩形、圆、线和文字都展开成三角形写入 {@link VertexBatch}。图形采样字形图集中的
+ * 白色纹素，文字采样字形 UV，全部共用一张纹理，只在批次写满或帧结束时提交。
+ * 字形按 {@link #ATLAS_FONT_SIZE} 光栅化一次，其它字号绘制时缩放。
+ *
+ * 窗口在构造线程上创建，GL 上下文随后释放，由第一个调用 beginFrame 的线程（游戏循环线程）接管。
+ * GLFW 要求 pollEvents 和 cleanup 在创建窗口的主线程上调用，{@link com.gameengine.core.GameEngine#run()}
+ * 会在调用它的线程上处理窗口事件，只有 GL 上下文交给游戏循环线程。
+ * GLFW 的按键和鼠标编号会转换成 AWT 编号，游戏代码与 Swing 后端使用相同的键码。
+ */
+public class GPURenderer implements Renderer {
+    private static final int BATCH_VERTICES = 6 * 16384;
+    private static final int MAX_TABLE_SEGMENTS = 256;
+    private static final float LINE_WIDTH = 2.5f;
+    private static final int ATLAS_FONT_SIZE = 32;
+    private static final String PRELOAD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()_+-=[]{}|;:,.<>?/~` ";
+
+    private int width;
+    private int height;
+    private String title;
+    private InputManager inputManager;
+    private boolean initialized;
+    private long window;
+    private GLCapabilities capabilities;
+    private Thread contextThread;
+    private GlyphTextureAtlas atlas;
+    private float whiteU;
+    private float whiteV;
+    private VertexBatch batch;
+    // 按段数缓存的单位圆 cos/sin 表，长度为 segments + 1
+    private final float[][] circleCos = new float[MAX_TABLE_SEGMENTS + 1][];
+    private final float[][] circleSin = new float[MAX_TABLE_SEGMENTS + 1][];
+
+    public GPURenderer(int width, int height, String title) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.inputManager = InputManager.getInstance();
+        this.initialized = false;
+        this.window = 0;
+
+        initialize();
+    }
+
+    private void initialize() {
+        try {
+            GLFWErrorCallback.createPrint(System.err).set();
+
+            if (!GLFW.glfwInit()) {
+                throw new RuntimeException("无法初始化GLFW");
+            }
+
+            GLFW.glfwDefaultWindowHints();
+            GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_TRUE);
+            GLFW.glfwWindowHint(GLFW.GLFW_RESIZABLE, GLFW.GLFW_FALSE);
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 2);
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 1);
+
+            window = GLFW.glfwCreateWindow(width, height, title, MemoryUtil.NULL, MemoryUtil.NULL);
+            if (window == MemoryUtil.NULL) {
+                throw new RuntimeException("无法创建GLFW窗口");
+            }
+
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                IntBuffer pWidth = stack.mallocInt(1);
+                IntBuffer pHeight = stack.mallocInt(1);
+
+                GLFW.glfwGetWindowSize(window, pWidth, pHeight);
+
+                org.lwjgl.glfw.GLFWVidMode vidmode = GLFW.glfwGetVideoMode(GLFW.glfwGetPrimaryMonitor());
+
+                if (vidmode != null) {
+                    GLFW.glfwSetWindowPos(
+                        window,
+                        (vidmode.width() - pWidth.get(0)) / 2,
+                        (vidmode.height() - pHeight.get(0)) / 2
+                    );
+                }
+            }
+
+            setupInput();
+
+            GLFW.glfwMakeContextCurrent(window);
+            capabilities = GL.createCapabilities();
+            GLFW.glfwSwapInterval(1);
+
+            GLFW.glfwShowWindow(window);
+
+            GL11.glViewport(0, 0, width, height);
+            GL11.glEnable(GL11.GL_BLEND);
+            GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+            GL11.glDisable(GL11.GL_DEPTH_TEST);
+            GL11.glDisable(GL11.GL_LIGHTING);
+
+            if (GL11.glGetString(GL11.GL_VERSION) == null) {
+                System.err.println("OpenGL上下文无效：无法获取版本字符串");
+            }
+
+            batch = new VertexBatch(BATCH_VERTICES);
+            atlas = new GlyphTextureAtlas(FontCache.get(ATLAS_FONT_SIZE), PRELOAD_CHARS);
+            whiteU = atlas.getWhiteU();
+            whiteV = atlas.getWhiteV();
+            GL11.glTexEnvi(GL11.GL_TEXTURE_ENV, GL11.GL_TEXTURE_ENV_MODE, GL11.GL_MODULATE);
+
+            // 释放上下文，交给渲染线程
+            GLFW.glfwMakeContextCurrent(MemoryUtil.NULL);
+            initialized = true;
+        } catch (Exception e) {
+            throw new RuntimeException("GPU渲染器初始化失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void setupInput() {
+        GLFW.glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> {
+            if (action == GLFW.GLFW_PRESS) {
+                inputManager.onKeyPressed(toAwtKey(key));
+            } else if (action == GLFW.GLFW_RELEASE) {
+                inputManager.onKeyReleased(toAwtKey(key));
+            }
+        });
+
+        GLFW.glfwSetMouseButtonCallback(window, (window, button, action, mods) -> {
+            if (action == GLFW.GLFW_PRESS) {
+                inputManager.onMousePressed(toAwtButton(button));
+            } else if (action == GLFW.GLFW_RELEASE) {
+                inputManager.onMouseReleased(toAwtButton(button));
+            }
+        });
+
+        GLFW.glfwSetCursorPosCallback(window, (window, xpos, ypos) -> {
+            inputManager.onMouseMoved((float) xpos, (float) ypos);
+        });
+    }
+
+    /**
+     * GLFW 键码转换为 AWT 键码；字母、数字和空格两者相同
+     */
+    private static int toAwtKey(int key) {
+        switch (key) {
+            case GLFW.GLFW_KEY_ESCAPE: return KeyEvent.VK_ESCAPE;
+            case GLFW.GLFW_KEY_ENTER: return KeyEvent.VK_ENTER;
+            case GLFW.GLFW_KEY_TAB: return KeyEvent.VK_TAB;
+            case GLFW.GLFW_KEY_BACKSPACE: return KeyEvent.VK_BACK_SPACE;
+            case GLFW.GLFW_KEY_RIGHT: return KeyEvent.VK_RIGHT;
+            case GLFW.GLFW_KEY_LEFT: return KeyEvent.VK_LEFT;
+            case GLFW.GLFW_KEY_DOWN: return KeyEvent.VK_DOWN;
+            case GLFW.GLFW_KEY_UP: return KeyEvent.VK_UP;
+            case GLFW.GLFW_KEY_LEFT_SHIFT:
+            case GLFW.GLFW_KEY_RIGHT_SHIFT: return KeyEvent.VK_SHIFT;
+            case GLFW.GLFW_KEY_LEFT_CONTROL:
+            case GLFW.GLFW_KEY_RIGHT_CONTROL: return KeyEvent.VK_CONTROL;
+            case GLFW.GLFW_KEY_LEFT_ALT:
+            case GLFW.GLFW_KEY_RIGHT_ALT: return KeyEvent.VK_ALT;
+            default: return key;
+        }
+    }
+
+    /**
+     * GLFW 鼠标按键（0 左、1 右、2 中）转换为 AWT 编号（1 左、2 中、3 右）
+     */
+    private static int toAwtButton(int button) {
+        switch (button) {
+            case GLFW.GLFW_MOUSE_BUTTON_LEFT: return MouseEvent.BUTTON1;
+            case GLFW.GLFW_MOUSE_BUTTON_MIDDLE: return MouseEvent.BUTTON2;
+            case GLFW.GLFW_MOUSE_BUTTON_RIGHT: return MouseEvent.BUTTON3;
+            default: return MouseEvent.NOBUTTON;
+        }
+    }
+
+    @Override
+    public void beginFrame() {
+        if (!initialized) return;
+
+        Thread current = Thread.currentThread();
+        if (contextThread != current) {
+            GLFW.glfwMakeContextCurrent(window);
+            GL.setCapabilities(capabilities);
+            contextThread = current;
+        }
+
+        GL11.glMatrixMode(GL11.GL_PROJECTION);
+        GL11.glLoadIdentity();
+        GL11.glOrtho(0, width, height, 0, -1, 1);
+
+        GL11.glMatrixMode(GL11.GL_MODELVIEW);
+        GL11.glLoadIdentity();
+
+        GL11.glClearColor(0.2f, 0.2f, 0.2f, 1.0f);
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+
+        GL11.glEnable(GL11.GL_BLEND);
+        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        GL11.glDisable(GL11.GL_DEPTH_TEST);
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        GL11.glDisable(GL11.GL_LIGHTING);
+        GL11.glDisable(GL11.GL_CULL_FACE);
+        GL11.glDisable(GL11.GL_COLOR_MATERIAL);
+
+        batch.begin();
+    }
+
+    @Override
+    public void endFrame() {
+        if (!initialized) return;
+        batch.flush();
+        GLFW.glfwSwapBuffers(window);
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h, float r, float g, float b, float a) {
+        if (!initialized) return;
+
+        batch.setTexture(atlas.getTexture());
+        batch.quad(x, y, x + w, y + h, whiteU, whiteV, whiteU, whiteV, VertexBatch.pack(r, g, b, a));
+    }
+
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        if (!initialized || segments < 3) return;
+
+        float[] cos = cosTable(segments);
+        float[] sin = circleSin[Math.min(segments, MAX_TABLE_SEGMENTS)];
+        int steps = cos.length - 1;
+        int rgba = VertexBatch.pack(r, g, b, a);
+
+        batch.setTexture(atlas.getTexture());
+        for (int i = 0; i < steps; i++) {
+            batch.ensure(3);
+            batch.vertex(x, y, whiteU, whiteV, rgba);
+            batch.vertex(x + radius * cos[i], y + radius * sin[i], whiteU, whiteV, rgba);
+            batch.vertex(x + radius * cos[i + 1], y + radius * sin[i + 1], whiteU, whiteV, rgba);
+        }
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        if (!initialized) return;
+
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        if (len < 0.001f) return;
+
+        // 线段展开为宽 LINE_WIDTH 的四边形
+        float scale = LINE_WIDTH * 0.5f / len;
+        float nx = -dy * scale;
+        float ny = dx * scale;
+        int rgba = VertexBatch.pack(r, g, b, a);
+
+        batch.setTexture(atlas.getTexture());
+        batch.ensure(6);
+        batch.vertex(x1 - nx, y1 - ny, whiteU, whiteV, rgba);
+        batch.vertex(x1 + nx, y1 + ny, whiteU, whiteV, rgba);
+        batch.vertex(x2 + nx, y2 + ny, whiteU, whiteV, rgba);
+        batch.vertex(x1 - nx, y1 - ny, whiteU, whiteV, rgba);
+        batch.vertex(x2 + nx, y2 + ny, whiteU, whiteV, rgba);
+        batch.vertex(x2 - nx, y2 - ny, whiteU, whiteV, rgba);
+    }
+
+    /**
+     * 获取段数对应的 cos 表（同时生成 sin 表），段数超过上限时按上限处理
+     */
+    private float[] cosTable(int segments) {
+        int n = Math.min(segments, MAX_TABLE_SEGMENTS);
+        float[] cos = circleCos[n];
+        if (cos == null) {
+            cos = new float[n + 1];
+            float[] sin = new float[n + 1];
+            for (int i = 0; i <= n; i++) {
+                double angle = i * 2.0 * Math.PI / n;
+                cos[i] = (float) Math.cos(angle);
+                sin[i] = (float) Math.sin(angle);
+            }
+            circleCos[n] = cos;
+            circleSin[n] = sin;
+        }
+        return cos;
+    }
+
+    @Override
+    public void drawString(String text, float x, float y, float r, float g, float b, float a, int fontSize) {
+        if (!initialized || text == null || text.isEmpty() || fontSize <= 0) return;
+
+        int rgba = VertexBatch.pack(r, g, b, a);
+        float scale = (float) fontSize / ATLAS_FONT_SIZE;
+        float padding = atlas.getPadding() * scale;
+        float cellHeight = atlas.getCellHeight() * scale;
+        // y 是基线，字形格子顶部在基线上方 ascent + padding 处
+        float top = y - atlas.getAscent() * scale - padding;
+        float penX = x;
+
+        batch.setTexture(atlas.getTexture());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int glyph = atlas.glyph(c);
+            if (glyph < 0) {
+                penX += atlas.getFallbackAdvance(c) * scale;
+                continue;
+            }
+            if (c != ' ') {
+                float left = penX - padding;
+                batch.quad(left, top, left + atlas.getCellWidth(glyph) * scale, top + cellHeight,
+                           atlas.getU0(glyph), atlas.getV0(glyph), atlas.getU1(glyph), atlas.getV1(glyph), rgba);
+            }
+            penX += atlas.getAdvance(glyph) * scale;
+        }
+    }
+
+    @Override
+    public boolean shouldClose() {
+        if (!initialized) return false;
+        return GLFW.glfwWindowShouldClose(window);
+    }
+
+    /**
+     * 处理窗口事件，只能在创建窗口的线程上调用
+     */
+    @Override
+    public void pollEvents() {
+        if (initialized && window != MemoryUtil.NULL) {
+            GLFW.glfwPollEvents();
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        // 上下文还留在游戏循环线程上时不释放 GL 对象，销毁窗口时随上下文一起回收
+        boolean ownsContext = contextThread == null || contextThread == Thread.currentThread();
+        if (initialized && contextThread == null) {
+            GLFW.glfwMakeContextCurrent(window);
+            GL.setCapabilities(capabilities);
+            contextThread = Thread.currentThread();
+        }
+        initialized = false;
+        if (batch != null) {
+            if (ownsContext) batch.dispose();
+            batch = null;
+        }
+        if (atlas != null) {
+            if (ownsContext) atlas.dispose();
+            atlas = null;
+        }
+
+        if (window != MemoryUtil.NULL) {
+            GLFW.glfwDestroyWindow(window);
+            window = MemoryUtil.NULL;
+        }
+        GLFW.glfwTerminate();
+        GLFWErrorCallback prev = GLFW.glfwSetErrorCallback(null);
+        if (prev != null) {
+            prev.free();
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,239 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 单张纹理的字形图集
+ *
+ * 所有字形以白色光栅化到同一张 RGBA 纹理中，按行(shelf)排布，记录每个字形的
+ * UV、格子宽度和 FontMetrics 给出的前进量。左上角留一块纯白区域，
+ * 纯色图形采样这里的白色纹素，于是图形和文字可以共用同一纹理、同一批次。
+ * 预加载之外的字符首次使用时用 glTexSubImage2D 追加，纹理写满后不再追加。
+ */
+final class GlyphTextureAtlas {
+    private static final int SIZE = 512;
+    private static final int PADDING = 1;
+    private static final int WHITE_BLOCK = 4;
+
+    private final Font font;
+    private final BufferedImage image;
+    private final Graphics2D graphics;
+    private final FontMetrics metrics;
+    private final int ascent;
+    private final int cellHeight;
+    private final int texture;
+    private final float whiteU;
+    private final float whiteV;
+    private ByteBuffer upload;
+    private int penX;
+    private int penY;
+
+    // char -> 字形下标 + 1，0 表示尚未光栅化，-1 表示图集已满无法加入
+    private int[] glyphByChar;
+    private float[] u0, v0, u1, v1;
+    private int[] cellWidth;
+    private int[] advance;
+    private int glyphCount;
+
+    GlyphTextureAtlas(Font font, String preload) {
+        this.font = font;
+        this.image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        this.graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setFont(font);
+        graphics.setColor(Color.WHITE);
+        graphics.setComposite(AlphaComposite.SrcOver);
+        this.metrics = graphics.getFontMetrics();
+        this.ascent = metrics.getAscent();
+        this.cellHeight = metrics.getAscent() + metrics.getDescent() + PADDING * 2;
+
+        graphics.fillRect(0, 0, WHITE_BLOCK, WHITE_BLOCK);
+        this.whiteU = (WHITE_BLOCK * 0.5f) / SIZE;
+        this.whiteV = (WHITE_BLOCK * 0.5f) / SIZE;
+        this.penX = WHITE_BLOCK;
+        this.penY = 0;
+
+        this.glyphByChar = new int[128];
+        this.u0 = new float[128];
+        this.v0 = new float[128];
+        this.u1 = new float[128];
+        this.v1 = new float[128];
+        this.cellWidth = new int[128];
+        this.advance = new int[128];
+
+        for (int i = 0; i < preload.length(); i++) {
+            char c = preload.charAt(i);
+            if (c < glyphByChar.length && glyphByChar[c] == 0) {
+                int index = rasterize(c);
+                glyphByChar[c] = index >= 0 ? index + 1 : -1;
+            }
+        }
+
+        this.texture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, SIZE, SIZE, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE,
+                pixels(0, 0, SIZE, SIZE));
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+    }
+
+    /**
+     * 获取字符的字形下标，必要时光栅化并上传；图集已满时返回 -1
+     */
+    int glyph(char c) {
+        if (c >= glyphByChar.length) {
+            glyphByChar = Arrays.copyOf(glyphByChar, Math.max(c + 1, glyphByChar.length * 2));
+        }
+        int slot = glyphByChar[c];
+        if (slot == 0) {
+            int index = rasterize(c);
+            if (index >= 0) {
+                int x = Math.round(u0[index] * SIZE);
+                int y = Math.round(v0[index] * SIZE);
+                GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+                GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+                GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, cellWidth[index], cellHeight,
+                        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels(x, y, cellWidth[index], cellHeight));
+            }
+            slot = index >= 0 ? index + 1 : -1;
+            glyphByChar[c] = slot;
+        }
+        return slot > 0 ? slot - 1 : -1;
+    }
+
+    float getU0(int glyph) {
+        return u0[glyph];
+    }
+
+    float getV0(int glyph) {
+        return v0[glyph];
+    }
+
+    float getU1(int glyph) {
+        return u1[glyph];
+    }
+
+    float getV1(int glyph) {
+        return v1[glyph];
+    }
+
+    int getCellWidth(int glyph) {
+        return cellWidth[glyph];
+    }
+
+    int getAdvance(int glyph) {
+        return advance[glyph];
+    }
+
+    /**
+     * 字形格子高度（含上下留白）
+     */
+    int getCellHeight() {
+        return cellHeight;
+    }
+
+    int getAscent() {
+        return ascent;
+    }
+
+    int getPadding() {
+        return PADDING;
+    }
+
+    /**
+     * 图集中找不到字符时使用的前进量
+     */
+    int getFallbackAdvance(char c) {
+        return metrics.charWidth(c);
+    }
+
+    int getTexture() {
+        return texture;
+    }
+
+    float getWhiteU() {
+        return whiteU;
+    }
+
+    float getWhiteV() {
+        return whiteV;
+    }
+
+    Font getFont() {
+        return font;
+    }
+
+    void dispose() {
+        graphics.dispose();
+        GL11.glDeleteTextures(texture);
+    }
+
+    private int rasterize(char c) {
+        int charAdvance = metrics.charWidth(c);
+        int width = charAdvance + PADDING * 2;
+        if (penX + width > SIZE) {
+            penX = 0;
+            penY += cellHeight;
+        }
+        if (penY + cellHeight > SIZE || width > SIZE) {
+            return -1;
+        }
+        if (glyphCount == u0.length) {
+            int capacity = glyphCount * 2;
+            u0 = Arrays.copyOf(u0, capacity);
+            v0 = Arrays.copyOf(v0, capacity);
+            u1 = Arrays.copyOf(u1, capacity);
+            v1 = Arrays.copyOf(v1, capacity);
+            cellWidth = Arrays.copyOf(cellWidth, capacity);
+            advance = Arrays.copyOf(advance, capacity);
+        }
+
+        int index = glyphCount++;
+        u0[index] = (float) penX / SIZE;
+        v0[index] = (float) penY / SIZE;
+        u1[index] = (float) (penX + width) / SIZE;
+        v1[index] = (float) (penY + cellHeight) / SIZE;
+        cellWidth[index] = width;
+        advance[index] = charAdvance;
+        graphics.drawString(String.valueOf(c), penX + PADDING, penY + PADDING + ascent);
+        penX += width;
+        return index;
+    }
+
+    /**
+     * 把图像区域转换成 RGBA 字节
+     */
+    private ByteBuffer pixels(int x, int y, int width, int height) {
+        int bytes = width * height * 4;
+        if (upload == null || upload.capacity() < bytes) {
+            upload = BufferUtils.createByteBuffer(bytes);
+        }
+        int[] argb = image.getRGB(x, y, width, height, null, 0, width);
+        upload.clear();
+        for (int pixel : argb) {
+            upload.put((byte) ((pixel >> 16) & 0xFF));
+            upload.put((byte) ((pixel >> 8) & 0xFF));
+            upload.put((byte) (pixel & 0xFF));
+            upload.put((byte) ((pixel >> 24) & 0xFF));
+        }
+        upload.flip();
+        return upload;
+    }
+}
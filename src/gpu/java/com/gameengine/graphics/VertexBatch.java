@@ -0,0 +1,168 @@
+package com.gameengine.graphics;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * 三角形顶点批处理
+ *
+ * 顶点交错存放为 x, y, u, v（float）和 RGBA（4 字节），先写入 int 暂存数组，
+ * flush 时一次拷贝到直接缓冲并上传到流式 VBO（每次先 glBufferData 置空实现孤立，
+ * 避免等待上一批绘制完成），再用一次 glDrawArrays 画出。
+ * 纹理变化或缓冲写满时才会 flush。
+ */
+final class VertexBatch {
+    private static final int INTS_PER_VERTEX = 5;
+    private static final int STRIDE = INTS_PER_VERTEX * 4;
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private final int capacity;
+    private final int[] staging;
+    private final ByteBuffer bytes;
+    private final IntBuffer ints;
+    private final int vbo;
+    private int vertexCount;
+    private int texture;
+    private int drawCalls;
+
+    /**
+     * @param capacity 每批最多的顶点数，必须是 3 的倍数
+     */
+    VertexBatch(int capacity) {
+        this.capacity = capacity - capacity % 3;
+        this.staging = new int[this.capacity * INTS_PER_VERTEX];
+        this.bytes = BufferUtils.createByteBuffer(this.capacity * STRIDE);
+        this.ints = bytes.asIntBuffer();
+        this.vbo = GL15.glGenBuffers();
+        this.texture = 0;
+    }
+
+    /**
+     * 开始新的一帧
+     */
+    void begin() {
+        vertexCount = 0;
+        drawCalls = 0;
+    }
+
+    /**
+     * 切换纹理（0 表示不使用纹理），与当前纹理不同时先提交已有顶点
+     */
+    void setTexture(int textureId) {
+        if (textureId != texture) {
+            flush();
+            texture = textureId;
+        }
+    }
+
+    /**
+     * 保证还能写入指定数量的顶点，不够时先提交
+     */
+    void ensure(int vertices) {
+        if (vertexCount + vertices > capacity) {
+            flush();
+        }
+    }
+
+    /**
+     * 写入一个顶点，调用前需先 ensure
+     */
+    void vertex(float x, float y, float u, float v, int rgba) {
+        int i = vertexCount * INTS_PER_VERTEX;
+        staging[i] = Float.floatToRawIntBits(x);
+        staging[i + 1] = Float.floatToRawIntBits(y);
+        staging[i + 2] = Float.floatToRawIntBits(u);
+        staging[i + 3] = Float.floatToRawIntBits(v);
+        staging[i + 4] = rgba;
+        vertexCount++;
+    }
+
+    /**
+     * 写入一个轴对齐四边形（两个三角形）
+     */
+    void quad(float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1, int rgba) {
+        ensure(6);
+        vertex(x0, y0, u0, v0, rgba);
+        vertex(x1, y0, u1, v0, rgba);
+        vertex(x1, y1, u1, v1, rgba);
+        vertex(x0, y0, u0, v0, rgba);
+        vertex(x1, y1, u1, v1, rgba);
+        vertex(x0, y1, u0, v1, rgba);
+    }
+
+    /**
+     * 提交暂存的顶点
+     */
+    void flush() {
+        if (vertexCount == 0) return;
+
+        ints.clear();
+        ints.put(staging, 0, vertexCount * INTS_PER_VERTEX);
+        bytes.clear();
+        bytes.limit(vertexCount * STRIDE);
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) capacity * STRIDE, GL15.GL_STREAM_DRAW);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, bytes);
+
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glVertexPointer(2, GL11.GL_FLOAT, STRIDE, 0);
+        GL11.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, STRIDE, 16);
+        if (texture != 0) {
+            GL11.glEnable(GL11.GL_TEXTURE_2D);
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            GL11.glTexCoordPointer(2, GL11.GL_FLOAT, STRIDE, 8);
+        } else {
+            GL11.glDisable(GL11.GL_TEXTURE_2D);
+            GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        }
+
+        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, vertexCount);
+
+        GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        vertexCount = 0;
+        drawCalls++;
+    }
+
+    /**
+     * 本帧已发出的绘制调用数
+     */
+    int getDrawCalls() {
+        return drawCalls;
+    }
+
+    void dispose() {
+        GL15.glDeleteBuffers(vbo);
+    }
+
+    /**
+     * 把 [0, 1] 范围的颜色打包为内存顺序 R, G, B, A 的 int
+     */
+    static int pack(float r, float g, float b, float a) {
+        int ri = channel(r);
+        int gi = channel(g);
+        int bi = channel(b);
+        int ai = channel(a);
+        if (LITTLE_ENDIAN) {
+            return (ai << 24) | (bi << 16) | (gi << 8) | ri;
+        }
+        return (ri << 24) | (gi << 16) | (bi << 8) | ai;
+    }
+
+    private static int channel(float value) {
+        if (value <= 0f) return 0;
+        if (value >= 1f) return 255;
+        return (int) (value * 255f + 0.5f);
+    }
+}
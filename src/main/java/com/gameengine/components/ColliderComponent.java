@@ -0,0 +1,164 @@
+package com.gameengine.components;
+
+import com.gameengine.core.Component;
+
+/**
+ * 碰撞体组件，描述对象的碰撞形状与碰撞层
+ *
+ * 形状相对 TransformComponent 的位置偏移 offset，位置视为左上角；
+ * 圆形的直径取 width。两个碰撞体只有在互相的 mask 都包含对方 layer 时才会产生接触。
+ */
+public class ColliderComponent extends Component<ColliderComponent> {
+    private Shape shape;
+    private float offsetX;
+    private float offsetY;
+    private float width;
+    private float height;
+    private int layer;
+    private int mask;
+
+    // 世界坐标包围盒，由 CollisionSystem 每帧刷新
+    private float minX, minY, maxX, maxY;
+
+    public enum Shape {
+        AABB,
+        CIRCLE
+    }
+
+    public ColliderComponent(Shape shape, float width, float height) {
+        this.shape = shape;
+        this.width = width;
+        this.height = shape == Shape.CIRCLE ? width : height;
+        this.offsetX = 0;
+        this.offsetY = 0;
+        this.layer = 1;
+        this.mask = -1;
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        // 包围盒由碰撞系统统一刷新
+    }
+
+    @Override
+    public void render() {
+    }
+
+    /**
+     * 根据所属对象的位置刷新世界包围盒
+     * @return 所属对象没有 TransformComponent 时返回 false
+     */
+    public boolean updateBounds() {
+        TransformComponent transform = owner != null ? owner.getComponent(TransformComponent.class) : null;
+        if (transform == null) return false;
+        minX = transform.getX() + offsetX;
+        minY = transform.getY() + offsetY;
+        maxX = minX + width;
+        maxY = minY + height;
+        return true;
+    }
+
+    /**
+     * 与另一个碰撞体的精确相交测试（边界重合不算），需先刷新包围盒
+     */
+    public boolean intersects(ColliderComponent other) {
+        if (shape == Shape.CIRCLE && other.shape == Shape.CIRCLE) {
+            float r = (width + other.width) * 0.5f;
+            float dx = getCenterX() - other.getCenterX();
+            float dy = getCenterY() - other.getCenterY();
+            return dx * dx + dy * dy < r * r;
+        }
+        boolean boxesOverlap = minX < other.maxX && maxX > other.minX && minY < other.maxY && maxY > other.minY;
+        if (!boxesOverlap || (shape == Shape.AABB && other.shape == Shape.AABB)) {
+            return boxesOverlap;
+        }
+        ColliderComponent circle = shape == Shape.CIRCLE ? this : other;
+        ColliderComponent box = circle == this ? other : this;
+        float cx = circle.getCenterX();
+        float cy = circle.getCenterY();
+        float r = circle.width * 0.5f;
+        float nearestX = Math.max(box.minX, Math.min(cx, box.maxX));
+        float nearestY = Math.max(box.minY, Math.min(cy, box.maxY));
+        float dx = cx - nearestX;
+        float dy = cy - nearestY;
+        return dx * dx + dy * dy < r * r;
+    }
+
+    /**
+     * 两个碰撞体的层过滤
+     */
+    public boolean canCollideWith(ColliderComponent other) {
+        return (layer & other.mask) != 0 && (other.layer & mask) != 0;
+    }
+
+    /**
+     * 设置相对位置偏移
+     */
+    public void setOffset(float offsetX, float offsetY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     * 设置尺寸，圆形只使用 width 作为直径
+     */
+    public void setSize(float width, float height) {
+        this.width = width;
+        this.height = shape == Shape.CIRCLE ? width : height;
+    }
+
+    /**
+     * 设置所在碰撞层（位掩码）
+     */
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * 设置可碰撞的层（位掩码）
+     */
+    public void setMask(int mask) {
+        this.mask = mask;
+    }
+
+    // Getters
+    public Shape getShape() {
+        return shape;
+    }
+
+    public int getLayer() {
+        return layer;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+
+    public float getCenterX() {
+        return (minX + maxX) * 0.5f;
+    }
+
+    public float getCenterY() {
+        return (minY + maxY) * 0.5f;
+    }
+}
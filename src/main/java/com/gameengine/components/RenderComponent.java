@@ -75,20 +75,22 @@ public class RenderComponent extends Component<RenderComponent> {
             return;
         }
         
-        Vector2 position = transform.getPosition();
+        // 使用插值后的渲染位置
+        float x = transform.getRenderX();
+        float y = transform.getRenderY();
         
         switch (renderType) {
             case RECTANGLE:
-                renderer.drawRect(position.x, position.y, size.x, size.y, 
+                renderer.drawRect(x, y, size.x, size.y, 
                                 color.r, color.g, color.b, color.a);
                 break;
             case CIRCLE:
-                renderer.drawCircle(position.x + size.x/2, position.y + size.y/2, 
+                renderer.drawCircle(x + size.x/2, y + size.y/2, 
                                   size.x/2, 16, color.r, color.g, color.b, color.a);
                 break;
             case LINE:
-                renderer.drawLine(position.x, position.y, 
-                                position.x + size.x, position.y + size.y,
+                renderer.drawLine(x, y, 
+                                x + size.x, y + size.y,
                                 color.r, color.g, color.b, color.a);
                 break;
         }
@@ -138,6 +140,20 @@ public class RenderComponent extends Component<RenderComponent> {
         return new Vector2(size);
     }
     
+    /**
+     * 宽度（不拷贝向量）
+     */
+    public float getWidth() {
+        return size.x;
+    }
+    
+    /**
+     * 高度（不拷贝向量）
+     */
+    public float getHeight() {
+        return size.y;
+    }
+    
     public Color getColor() {
         return color;
     }
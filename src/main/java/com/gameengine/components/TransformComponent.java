@@ -6,11 +6,15 @@ import com.gameengine.math.Vector2;
 
 /**
  * 变换组件，管理位置、旋转、缩放
+ *
+ * 另外记录上一个逻辑帧的位置，渲染时在两帧之间插值得到渲染位置。
  */
 public class TransformComponent extends Component<TransformComponent> {
     private Vector2 position;
     private Vector2 scale;
     private float rotation;
+    private float previousX, previousY;
+    private float renderX, renderY;
     
     public TransformComponent() {
         this.position = new Vector2();
@@ -21,12 +25,14 @@ public class TransformComponent extends Component<TransformComponent> {
     public TransformComponent(Vector2 position) {
         this();
         this.position = new Vector2(position);
+        resetInterpolation();
     }
     
     public TransformComponent(Vector2 position, Vector2 scale, float rotation) {
         this.position = new Vector2(position);
         this.scale = new Vector2(scale);
         this.rotation = rotation;
+        resetInterpolation();
     }
     
     @Override
@@ -45,7 +51,7 @@ public class TransformComponent extends Component<TransformComponent> {
     }
     
     /**
-     * 移动到指定位置
+     * 移动到指定位置，渲染时从上一帧位置插值过去
      */
     public void moveTo(Vector2 newPosition) {
         this.position = new Vector2(newPosition);
@@ -91,8 +97,65 @@ public class TransformComponent extends Component<TransformComponent> {
         return new Vector2(position);
     }
     
+    /**
+     * 直接设置位置（瞬移），同时重置插值历史；逐帧移动请用 {@link #moveTo(Vector2)}
+     */
     public void setPosition(Vector2 position) {
         this.position = new Vector2(position);
+        resetInterpolation();
+    }
+    
+    /**
+     * 位置X坐标（不拷贝向量）
+     */
+    public float getX() {
+        return position.x;
+    }
+    
+    /**
+     * 位置Y坐标（不拷贝向量）
+     */
+    public float getY() {
+        return position.y;
+    }
+    
+    /**
+     * 记录当前位置作为上一逻辑帧的位置，在每个固定步长开始前调用
+     */
+    public void storePreviousPosition() {
+        previousX = position.x;
+        previousY = position.y;
+    }
+    
+    /**
+     * 在上一逻辑帧与当前位置之间插值出渲染位置
+     * @param alpha 插值系数，0 为上一帧，1 为当前帧
+     */
+    public void interpolate(float alpha) {
+        renderX = previousX + (position.x - previousX) * alpha;
+        renderY = previousY + (position.y - previousY) * alpha;
+    }
+    
+    /**
+     * 丢弃插值历史，瞬移或新加入场景时使用，避免从旧位置滑过来
+     */
+    public void resetInterpolation() {
+        previousX = renderX = position.x;
+        previousY = renderY = position.y;
+    }
+    
+    /**
+     * 插值后的渲染位置X坐标
+     */
+    public float getRenderX() {
+        return renderX;
+    }
+    
+    /**
+     * 插值后的渲染位置Y坐标
+     */
+    public float getRenderY() {
+        return renderY;
     }
     
     public Vector2 getScale() {
@@ -0,0 +1,135 @@
+package com.gameengine.core;
+
+import java.util.Arrays;
+
+/**
+ * 原型（Archetype）：拥有完全相同组件类型集合的实体分组
+ *
+ * 同一类型的组件按列连续存放，第 row 行的所有列属于同一个 GameObject，
+ * 系统可以直接按列遍历而不需要逐个对象调用 getComponent。
+ */
+public final class Archetype {
+    private final long signature;
+    private final int[] columnTypeIds;
+    private final int[] columnByTypeId;
+    private GameObject[] entities;
+    private Component<?>[][] columns;
+    private int size;
+
+    Archetype(long signature) {
+        this.signature = signature;
+        this.columnTypeIds = new int[Long.bitCount(signature)];
+        this.columnByTypeId = new int[ComponentType.MAX_TYPES];
+        Arrays.fill(columnByTypeId, -1);
+
+        int column = 0;
+        for (int id = 0; id < ComponentType.MAX_TYPES; id++) {
+            if ((signature & (1L << id)) != 0) {
+                columnTypeIds[column] = id;
+                columnByTypeId[id] = column;
+                column++;
+            }
+        }
+
+        int capacity = 16;
+        this.entities = new GameObject[capacity];
+        this.columns = new Component<?>[columnTypeIds.length][capacity];
+        this.size = 0;
+    }
+
+    /**
+     * 追加实体，返回其所在行
+     */
+    int add(GameObject obj) {
+        if (size == entities.length) {
+            grow();
+        }
+        int row = size++;
+        entities[row] = obj;
+        for (int c = 0; c < columnTypeIds.length; c++) {
+            columns[c][row] = obj.slotOf(columnTypeIds[c]);
+        }
+        obj.archetype = this;
+        obj.archetypeRow = row;
+        return row;
+    }
+
+    /**
+     * 交换删除指定行，被移动的最后一行实体会更新自己的行号
+     */
+    void removeAt(int row) {
+        int last = size - 1;
+        GameObject removed = entities[row];
+        if (row != last) {
+            GameObject moved = entities[last];
+            entities[row] = moved;
+            for (Component<?>[] column : columns) {
+                column[row] = column[last];
+            }
+            moved.archetypeRow = row;
+        }
+        entities[last] = null;
+        for (Component<?>[] column : columns) {
+            column[last] = null;
+        }
+        size = last;
+        removed.archetype = null;
+        removed.archetypeRow = -1;
+    }
+
+    private void grow() {
+        int capacity = entities.length * 2;
+        entities = Arrays.copyOf(entities, capacity);
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = Arrays.copyOf(columns[c], capacity);
+        }
+    }
+
+    /**
+     * 是否包含掩码中的全部组件类型
+     */
+    public boolean matches(long mask) {
+        return (signature & mask) == mask;
+    }
+
+    /**
+     * 获取组件类型所在列，不存在时返回 -1
+     */
+    public int columnOf(Class<?> componentType) {
+        return columnByTypeId[ComponentType.of(componentType).getId()];
+    }
+
+    /**
+     * 列数（即组件类型数量）
+     */
+    public int columnCount() {
+        return columnTypeIds.length;
+    }
+
+    /**
+     * 指定列对应的组件类型ID
+     */
+    public int columnTypeId(int column) {
+        return columnTypeIds[column];
+    }
+
+    /**
+     * 读取指定列指定行的组件
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(int column, int row) {
+        return (T) columns[column][row];
+    }
+
+    public GameObject getEntity(int row) {
+        return entities[row];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getSignature() {
+        return signature;
+    }
+}
@@ -0,0 +1,215 @@
+package com.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 原型存储，按组件签名把场景中的 GameObject 分到不同的 Archetype 中
+ *
+ * GameObject 在加入存储后，添加/移除组件会自动迁移到新的原型。
+ * 遍历查询结果期间不要对实体增删组件。
+ */
+public class ArchetypeStorage {
+    /**
+     * 实体进出原型时的回调，用于维护外部索引
+     */
+    public interface Listener {
+        default void onEntityAdded(GameObject obj, Archetype archetype, int row) {}
+        default void onEntityRemoved(GameObject obj, Archetype archetype, int row) {}
+        default void onEntityRetagged(GameObject obj, Tag oldTag) {}
+    }
+    
+    // 按签名开放寻址的原型表，容量为 2 的幂，查找时不装箱
+    private Archetype[] table;
+    private final List<Archetype> archetypeList;
+    private long[] queryMasks;
+    private List<List<Archetype>> queryResults;
+    private int queryCount;
+    private final List<Listener> listeners;
+
+    public ArchetypeStorage() {
+        this.table = new Archetype[16];
+        this.archetypeList = new ArrayList<>();
+        this.queryMasks = new long[8];
+        this.queryResults = new ArrayList<>();
+        this.queryCount = 0;
+        this.listeners = new ArrayList<>();
+    }
+
+    /**
+     * 把游戏对象加入存储
+     */
+    public void add(GameObject obj) {
+        if (obj.storage == this) return;
+        if (obj.storage != null) {
+            obj.storage.remove(obj);
+        }
+        obj.storage = this;
+        insert(obj);
+    }
+
+    /**
+     * 把游戏对象移出存储
+     */
+    public void remove(GameObject obj) {
+        if (obj.storage != this) return;
+        extract(obj);
+        obj.storage = null;
+    }
+
+    /**
+     * 组件集合变化后重新归档
+     */
+    void relocate(GameObject obj) {
+        extract(obj);
+        insert(obj);
+    }
+
+    /**
+     * 实体销毁时移出原型，之后的查询不再遍历到它；与存储的关联保留到场景移除该对象
+     */
+    void evict(GameObject obj) {
+        extract(obj);
+    }
+
+    /**
+     * 标签变化通知
+     */
+    void retag(GameObject obj, Tag oldTag) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onEntityRetagged(obj, oldTag);
+        }
+    }
+
+    /**
+     * 添加实体进出原型的监听器
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    private void insert(GameObject obj) {
+        Archetype archetype = archetypeFor(obj.getSignature());
+        int row = archetype.add(obj);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onEntityAdded(obj, archetype, row);
+        }
+    }
+
+    private void extract(GameObject obj) {
+        Archetype archetype = obj.archetype;
+        if (archetype == null) return;
+        int row = obj.archetypeRow;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onEntityRemoved(obj, archetype, row);
+        }
+        archetype.removeAt(row);
+    }
+
+    /**
+     * 获取包含掩码中全部组件类型的原型列表（结果被缓存并随新原型自动更新）
+     */
+    public List<Archetype> query(long mask) {
+        for (int i = 0; i < queryCount; i++) {
+            if (queryMasks[i] == mask) {
+                return queryResults.get(i);
+            }
+        }
+        List<Archetype> result = new ArrayList<>();
+        for (Archetype archetype : archetypeList) {
+            if (archetype.matches(mask)) {
+                result.add(archetype);
+            }
+        }
+        if (queryCount == queryMasks.length) {
+            queryMasks = Arrays.copyOf(queryMasks, queryCount * 2);
+        }
+        queryMasks[queryCount++] = mask;
+        queryResults.add(result);
+        return result;
+    }
+
+    /**
+     * 获取包含指定组件类型的原型列表
+     */
+    public List<Archetype> query(Class<?>... componentTypes) {
+        return query(ComponentType.maskOf(componentTypes));
+    }
+
+    /**
+     * 遍历同时拥有两种组件的活跃实体
+     */
+    public <A, B> void forEach(Class<A> typeA, Class<B> typeB, BiConsumer<A, B> action) {
+        long mask = ComponentType.of(typeA).getBit() | ComponentType.of(typeB).getBit();
+        List<Archetype> matched = query(mask);
+        for (int i = 0; i < matched.size(); i++) {
+            Archetype archetype = matched.get(i);
+            int columnA = archetype.columnOf(typeA);
+            int columnB = archetype.columnOf(typeB);
+            for (int row = 0; row < archetype.size(); row++) {
+                if (!archetype.getEntity(row).isActive()) continue;
+                A a = archetype.get(columnA, row);
+                B b = archetype.get(columnB, row);
+                action.accept(a, b);
+            }
+        }
+    }
+
+    /**
+     * 清空存储
+     */
+    public void clear() {
+        for (Archetype archetype : archetypeList) {
+            while (archetype.size() > 0) {
+                GameObject obj = archetype.getEntity(archetype.size() - 1);
+                extract(obj);
+                obj.storage = null;
+            }
+        }
+    }
+
+    public List<Archetype> getArchetypes() {
+        return archetypeList;
+    }
+
+    private Archetype archetypeFor(long signature) {
+        int mask = table.length - 1;
+        int slot = slotOf(signature, mask);
+        Archetype archetype;
+        while ((archetype = table[slot]) != null && archetype.getSignature() != signature) {
+            slot = (slot + 1) & mask;
+        }
+        if (archetype == null) {
+            archetype = new Archetype(signature);
+            table[slot] = archetype;
+            archetypeList.add(archetype);
+            if (archetypeList.size() * 2 > table.length) {
+                rehash();
+            }
+            for (int i = 0; i < queryCount; i++) {
+                if (archetype.matches(queryMasks[i])) {
+                    queryResults.get(i).add(archetype);
+                }
+            }
+        }
+        return archetype;
+    }
+
+    private void rehash() {
+        table = new Archetype[table.length * 2];
+        int mask = table.length - 1;
+        for (Archetype archetype : archetypeList) {
+            int slot = slotOf(archetype.getSignature(), mask);
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = archetype;
+        }
+    }
+
+    private static int slotOf(long signature, int mask) {
+        return (int) ((signature * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
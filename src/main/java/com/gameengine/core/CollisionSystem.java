@@ -0,0 +1,201 @@
+package com.gameengine.core;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 碰撞系统，使用排序扫描(sort and sweep)做宽阶段检测
+ *
+ * 碰撞体数组按包围盒 minX 排序并跨帧保留，物体每帧移动很小，
+ * 插入排序在几乎有序的数组上接近 O(n)。扫描时只比较 x 区间重叠的相邻碰撞体，
+ * 再做层过滤和精确形状测试，结果写入接触列表，然后通知监听器。
+ */
+public class CollisionSystem {
+    /**
+     * 接触回调，在一次 update 的扫描全部完成后按接触顺序调用
+     */
+    public interface ContactListener {
+        void onContact(ColliderComponent a, ColliderComponent b);
+    }
+
+    /**
+     * 一对接触的碰撞体，对象由系统复用，不要跨帧持有
+     */
+    public static final class Contact {
+        private ColliderComponent a;
+        private ColliderComponent b;
+
+        public ColliderComponent getA() {
+            return a;
+        }
+
+        public ColliderComponent getB() {
+            return b;
+        }
+    }
+
+    private final Scene scene;
+    private ColliderComponent[] sorted;
+    private int count;
+    private int lastEpoch;
+    private int lastIndexedCount;
+    private final Map<ColliderComponent, Boolean> pending;
+    private final List<Contact> contactPool;
+    private final List<Contact> contacts;
+    private final List<ContactListener> listeners;
+
+    public CollisionSystem(Scene scene) {
+        this.scene = scene;
+        this.sorted = new ColliderComponent[64];
+        this.count = 0;
+        this.lastEpoch = -1;
+        this.lastIndexedCount = -1;
+        this.pending = new IdentityHashMap<>();
+        this.contactPool = new ArrayList<>();
+        this.contacts = new ArrayList<>();
+        this.listeners = new ArrayList<>();
+    }
+
+    /**
+     * 执行一次碰撞检测
+     */
+    public void update() {
+        List<ColliderComponent> indexed = scene.getComponents(ColliderComponent.class);
+        boolean stale = refreshBounds();
+        if (stale || scene.getEpoch() != lastEpoch || indexed.size() != lastIndexedCount) {
+            syncMembership(indexed);
+            lastEpoch = scene.getEpoch();
+            lastIndexedCount = indexed.size();
+        }
+
+        insertionSort();
+        sweep();
+
+        for (int i = 0; i < contacts.size(); i++) {
+            Contact contact = contacts.get(i);
+            for (int l = 0; l < listeners.size(); l++) {
+                listeners.get(l).onContact(contact.a, contact.b);
+            }
+        }
+    }
+
+    /**
+     * 本次 update 检测到的接触，下一次 update 时会被覆盖
+     */
+    public List<Contact> getContacts() {
+        return contacts;
+    }
+
+    public void addListener(ContactListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ContactListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 当前参与检测的碰撞体数量
+     */
+    public int getColliderCount() {
+        return count;
+    }
+
+    /**
+     * 刷新已登记碰撞体的包围盒
+     * @return 发现失效的碰撞体（已销毁或对象已失活）时返回 true
+     */
+    private boolean refreshBounds() {
+        boolean stale = false;
+        for (int i = 0; i < count; i++) {
+            ColliderComponent collider = sorted[i];
+            if (!isLive(collider) || !collider.updateBounds()) {
+                stale = true;
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * 与场景索引同步：保留旧数组中仍然存在的碰撞体的顺序，新碰撞体追加到末尾
+     */
+    private void syncMembership(List<ColliderComponent> indexed) {
+        pending.clear();
+        for (int i = 0; i < indexed.size(); i++) {
+            ColliderComponent collider = indexed.get(i);
+            if (isLive(collider)) {
+                pending.put(collider, Boolean.TRUE);
+            }
+        }
+
+        int write = 0;
+        for (int i = 0; i < count; i++) {
+            ColliderComponent collider = sorted[i];
+            if (pending.remove(collider) != null && collider.updateBounds()) {
+                sorted[write++] = collider;
+            }
+        }
+        Arrays.fill(sorted, write, count, null);
+        count = write;
+
+        for (int i = 0; i < indexed.size() && !pending.isEmpty(); i++) {
+            ColliderComponent collider = indexed.get(i);
+            if (pending.remove(collider) != null && collider.updateBounds()) {
+                if (count == sorted.length) {
+                    sorted = Arrays.copyOf(sorted, count * 2);
+                }
+                sorted[count++] = collider;
+            }
+        }
+    }
+
+    private void insertionSort() {
+        for (int i = 1; i < count; i++) {
+            ColliderComponent key = sorted[i];
+            float keyMin = key.getMinX();
+            int j = i - 1;
+            while (j >= 0 && sorted[j].getMinX() > keyMin) {
+                sorted[j + 1] = sorted[j];
+                j--;
+            }
+            sorted[j + 1] = key;
+        }
+    }
+
+    private void sweep() {
+        contacts.clear();
+        for (int i = 0; i < count; i++) {
+            ColliderComponent a = sorted[i];
+            float maxX = a.getMaxX();
+            for (int j = i + 1; j < count; j++) {
+                ColliderComponent b = sorted[j];
+                if (b.getMinX() >= maxX) break;
+                if (a.getMinY() >= b.getMaxY() || a.getMaxY() <= b.getMinY()) continue;
+                if (!a.canCollideWith(b) || !a.intersects(b)) continue;
+                addContact(a, b);
+            }
+        }
+    }
+
+    private void addContact(ColliderComponent a, ColliderComponent b) {
+        int index = contacts.size();
+        if (index == contactPool.size()) {
+            contactPool.add(new Contact());
+        }
+        Contact contact = contactPool.get(index);
+        contact.a = a;
+        contact.b = b;
+        contacts.add(contact);
+    }
+
+    private static boolean isLive(ColliderComponent collider) {
+        GameObject owner = collider.getOwner();
+        return collider.isEnabled() && owner != null && owner.isActive();
+    }
+}
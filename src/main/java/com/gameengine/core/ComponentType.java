@@ -0,0 +1,80 @@
+package com.gameengine.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 组件类型描述，为每个组件类分配稳定的位索引
+ *
+ * 组件的"谱系掩码"包含自身及其所有父类（不含 Component 基类）的位，
+ * 这样按父类查找组件与原来的 isInstance 语义保持一致。
+ */
+public final class ComponentType {
+    /** 掩码使用 long 表示，因此最多支持64种组件类型 */
+    public static final int MAX_TYPES = 64;
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static final ClassValue<ComponentType> TYPES = new ClassValue<ComponentType>() {
+        @Override
+        protected ComponentType computeValue(Class<?> type) {
+            return new ComponentType(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final int id;
+    private final long bit;
+    private final long lineage;
+
+    private ComponentType(Class<?> type) {
+        this.type = type;
+        this.id = nextId.getAndIncrement();
+        if (id >= MAX_TYPES) {
+            throw new IllegalStateException("组件类型数量超过上限 " + MAX_TYPES + ": " + type.getName());
+        }
+        this.bit = 1L << id;
+
+        long mask = bit;
+        Class<?> parent = type.getSuperclass();
+        if (parent != null && parent != Component.class && Component.class.isAssignableFrom(parent)) {
+            mask |= of(parent).lineage;
+        }
+        this.lineage = mask;
+    }
+
+    /**
+     * 获取组件类对应的类型描述（线程安全，结果被缓存）
+     */
+    public static ComponentType of(Class<?> type) {
+        return TYPES.get(type);
+    }
+
+    /**
+     * 计算一组组件类的组合掩码
+     */
+    public static long maskOf(Class<?>... types) {
+        long mask = 0;
+        for (Class<?> type : types) {
+            mask |= of(type).bit;
+        }
+        return mask;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getBit() {
+        return bit;
+    }
+
+    /**
+     * 自身及父组件类的位掩码
+     */
+    public long getLineage() {
+        return lineage;
+    }
+}
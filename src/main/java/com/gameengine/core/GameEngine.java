@@ -1,35 +1,75 @@
 package com.gameengine.core;
 
+import com.gameengine.graphics.RenderBackend;
 import com.gameengine.graphics.Renderer;
+import com.gameengine.graphics.RendererFactory;
 import com.gameengine.input.InputManager;
+import com.gameengine.input.InputScript;
 import com.gameengine.scene.Scene;
 import com.gameengine.recording.RecordingService;
-import javax.swing.Timer;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 游戏引擎
+ *
+ * 游戏循环运行在独立的模拟线程上，采用累加器式固定步长：逻辑按 tickRate 以固定的
+ * deltaTime 推进，渲染按 targetFPS 进行，并用剩余累加时间在前后两个逻辑帧之间插值。
+ * 单帧耗时过长时最多追赶 maxCatchUpSteps 步，多余的时间直接丢弃，避免越追越慢。
+ * 窗口事件留在调用 {@link #run()} 的线程上处理（GLFW 要求在主线程上处理事件），
+ * 渲染器只把绘制上下文交给模拟线程。
+ *
+ * 渲染器为 null 时处于无窗口模式：不启动游戏循环线程，由调用方通过 {@link #step(float)}
+ * 以任意速度推进逻辑，输入可以由 {@link InputScript} 按逻辑帧注入。
  */
 public class GameEngine {
+    private static final long EVENT_POLL_NANOS = 2_000_000L;
+    
     private Renderer renderer;
     private InputManager inputManager;
-    private Scene currentScene;
-    private boolean running;
+    private volatile Scene currentScene;
+    private volatile boolean running;
     private float targetFPS;
+    private float tickRate;
     private float deltaTime;
-    private long lastTime;
+    private int maxCatchUpSteps;
+    private float interpolationAlpha;
     private String title;
-    private Timer gameTimer;
+    private int width;
+    private int height;
+    private long tickCount;
+    private InputScript inputScript;
+    private boolean recordingEnabled;
+    private Thread loopThread;
     private GameLogic gameLogic;
     private RecordingService recordingService;
     
     public GameEngine(int width, int height, String title) {
+        this(width, height, title, RenderBackend.SWING);
+    }
+    
+    /**
+     * @param backend 渲染后端
+     */
+    public GameEngine(int width, int height, String title, RenderBackend backend) {
+        this(RendererFactory.createRenderer(backend, width, height, title), width, height, title);
+    }
+
+    /**
+     * @param renderer 渲染器，为 null 时以无窗口模式运行
+     */
+    public GameEngine(Renderer renderer, int width, int height, String title) {
         this.title = title;
-        this.renderer = new Renderer(width, height, title);
+        this.width = width;
+        this.height = height;
+        this.renderer = renderer;
+        this.recordingEnabled = true;
         this.inputManager = InputManager.getInstance();
         this.running = false;
         this.targetFPS = 60.0f;
-        this.deltaTime = 0.0f;
-        this.lastTime = System.nanoTime();
+        this.tickRate = 60.0f;
+        this.deltaTime = 1.0f / tickRate;
+        this.maxCatchUpSteps = 5;
+        this.interpolationAlpha = 1.0f;
     }
 
     public void setGameLogic(GameLogic gameLogic) {
@@ -44,12 +84,56 @@ public class GameEngine {
     }
     
     /**
-     * 运行游戏引擎
+     * 运行游戏引擎，阻塞到游戏循环结束并释放资源
      */
     public void run() {
+        if (!start()) {
+            return;
+        }
+        
+        // 启动模拟线程
+        loopThread = new Thread(this::loop, "game-loop");
+        loopThread.start();
+        
+        pumpEvents();
+        cleanup();
+    }
+    
+    /**
+     * 在调用线程上处理窗口事件，直到模拟线程退出
+     */
+    private void pumpEvents() {
+        while (loopThread.isAlive()) {
+            if (renderer != null) {
+                renderer.pollEvents();
+                // 检查窗口是否关闭
+                if (renderer.shouldClose()) {
+                    running = false;
+                }
+            }
+            LockSupport.parkNanos(EVENT_POLL_NANOS);
+        }
+    }
+    
+    /**
+     * 推进一个逻辑帧，用于无窗口模式由调用方驱动模拟
+     * 首次调用时初始化引擎和当前场景；引擎停止后返回 false
+     */
+    public boolean step(float deltaTime) {
+        if (!running && (tickCount > 0 || !start())) {
+            return false;
+        }
+        update(deltaTime);
+        return running;
+    }
+    
+    /**
+     * 初始化引擎并进入运行状态
+     */
+    private boolean start() {
         if (!initialize()) {
             System.err.println("游戏引擎初始化失败");
-            return;
+            return false;
         }
         
         running = true;
@@ -58,67 +142,91 @@ public class GameEngine {
         if (currentScene != null) {
             currentScene.initialize();
         }
+        return true;
+    }
+    
+    /**
+     * 固定步长游戏循环
+     */
+    private void loop() {
+        long lastTime = System.nanoTime();
+        double accumulator = 0.0;
         
-        // 创建游戏循环定时器
-        gameTimer = new Timer((int) (1000 / targetFPS), e -> {
+        while (running) {
+            long frameStart = System.nanoTime();
+            double frameTime = (frameStart - lastTime) / 1_000_000_000.0;
+            lastTime = frameStart;
+            accumulator += frameTime;
+            
+            double step = 1.0 / tickRate;
+            int steps = 0;
+            while (accumulator >= step && steps < maxCatchUpSteps && running) {
+                update((float) step);
+                accumulator -= step;
+                steps++;
+            }
+            if (steps == maxCatchUpSteps && accumulator >= step) {
+                // 追赶上限，丢弃积压的时间
+                accumulator %= step;
+            }
+            
             if (running) {
-                update();
+                interpolationAlpha = (float) (accumulator / step);
                 render();
             }
-        });
-        
-        gameTimer.start();
+            
+            // 按目标帧率节流渲染
+            long frameNanos = (long) (1_000_000_000.0 / targetFPS);
+            long remaining = frameNanos - (System.nanoTime() - frameStart);
+            if (remaining > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
     }
     
     /**
-     * 更新游戏逻辑
+     * 推进一个固定步长的游戏逻辑
      */
-    private void update() {
-        // 计算时间间隔
-        long currentTime = System.nanoTime();
-        deltaTime = (currentTime - lastTime) / 1_000_000_000.0f; // 转换为秒
-        lastTime = currentTime;
+    private void update(float deltaTime) {
+        this.deltaTime = deltaTime;
+        
+        // 注入脚本输入
+        if (inputScript != null) {
+            inputScript.apply(tickCount, inputManager);
+        }
+        
+        Scene scene = currentScene;
 
         // 更新场景
-        if (currentScene != null) {
-            currentScene.update(deltaTime);
+        if (scene != null) {
+            scene.storePreviousTransforms();
+            scene.update(deltaTime);
         }
         
         // Update recording
         if (recordingService != null && recordingService.isRecording()) {
-            recordingService.update(deltaTime, currentScene, inputManager);
+            recordingService.update(deltaTime, scene, inputManager);
         }
         
-        // 处理事件
-        renderer.pollEvents();
-        
-        // 检查退出条件
-        if (inputManager.isKeyPressed(27)) { // ESC键
-            // Don't stop engine on ESC, let scene handle it or stop explicitly
-            // running = false;
-            // gameTimer.stop();
-            // renderer.cleanup();
-        }
-        
-        // 检查窗口是否关闭
-        if (renderer.shouldClose()) {
-            running = false;
-            gameTimer.stop();
-        }
-
         // 更新输入
         inputManager.update();
+        tickCount++;
     }
     
     /**
      * 渲染游戏
      */
     private void render() {
+        Scene scene = currentScene;
+        if (renderer == null) {
+            return;
+        }
         renderer.beginFrame();
         
         // 渲染场景
-        if (currentScene != null) {
-            currentScene.render();
+        if (scene != null) {
+            scene.interpolateTransforms(interpolationAlpha);
+            scene.render();
         }
         
         renderer.endFrame();
@@ -146,9 +254,6 @@ public class GameEngine {
      */
     public void stop() {
         running = false;
-        if (gameTimer != null) {
-            gameTimer.stop();
-        }
         if (gameLogic != null) {
             gameLogic.cleanup();
         }
@@ -162,15 +267,20 @@ public class GameEngine {
         if (currentScene != null) {
             currentScene.clear();
         }
-        renderer.cleanup();
+        if (renderer != null) {
+            renderer.cleanup();
+        }
         disableRecording();
     }
     
     public void enableRecording(RecordingService service) {
+        if (!recordingEnabled) {
+            return;
+        }
         this.recordingService = service;
         try {
             if (service != null && currentScene != null) {
-                service.start(currentScene, renderer.getWidth(), renderer.getHeight());
+                service.start(currentScene, width, height);
             }
         } catch (Exception e) {
             System.err.println("Recording start failed: " + e.getMessage());
@@ -184,6 +294,45 @@ public class GameEngine {
         recordingService = null;
     }
     
+    /**
+     * 是否允许场景开启录制，关闭后 enableRecording 不做任何事
+     */
+    public void setRecordingEnabled(boolean recordingEnabled) {
+        this.recordingEnabled = recordingEnabled;
+        if (!recordingEnabled) {
+            disableRecording();
+        }
+    }
+    
+    /**
+     * 设置脚本输入，每个逻辑帧开始时注入到输入管理器，null 表示不使用
+     */
+    public void setInputScript(InputScript inputScript) {
+        this.inputScript = inputScript;
+    }
+    
+    /**
+     * 是否为无窗口模式（没有渲染器）
+     */
+    public boolean isHeadless() {
+        return renderer == null;
+    }
+    
+    /**
+     * 已执行的逻辑帧数
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
     /**
      * 获取渲染器
      */
@@ -199,20 +348,45 @@ public class GameEngine {
     }
     
     /**
-     * 获取时间间隔
+     * 获取时间间隔（固定步长）
      */
     public float getDeltaTime() {
         return deltaTime;
     }
     
     /**
-     * 设置目标帧率
+     * 设置目标帧率（渲染频率）
      */
     public void setTargetFPS(float fps) {
         this.targetFPS = fps;
-        if (gameTimer != null) {
-            gameTimer.setDelay((int) (1000 / fps));
-        }
+    }
+    
+    /**
+     * 设置逻辑更新频率（每秒固定步数）
+     */
+    public void setTickRate(float tickRate) {
+        this.tickRate = tickRate;
+    }
+    
+    /**
+     * 获取逻辑更新频率
+     */
+    public float getTickRate() {
+        return tickRate;
+    }
+    
+    /**
+     * 设置单次循环最多追赶的逻辑步数
+     */
+    public void setMaxCatchUpSteps(int maxCatchUpSteps) {
+        this.maxCatchUpSteps = Math.max(1, maxCatchUpSteps);
+    }
+    
+    /**
+     * 当前渲染帧在前后两个逻辑帧之间的插值系数 [0, 1)
+     */
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
     }
     
     /**
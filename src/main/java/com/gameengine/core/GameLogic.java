@@ -19,13 +19,17 @@ import java.util.concurrent.TimeUnit;
  * 游戏逻辑类，处理具体的游戏规则
  */
 public class GameLogic {
+    private static final long PHYSICS_MASK = ComponentType.maskOf(TransformComponent.class, PhysicsComponent.class);
+    
     private Scene scene;
     private InputManager inputManager;
     private ExecutorService physicsExecutor; // 用于并行处理物理计算的线程池
+    private CollisionSystem collisionSystem;
     
     public GameLogic(Scene scene) {
         this.scene = scene;
         this.inputManager = InputManager.getInstance();
+        this.collisionSystem = new CollisionSystem(scene);
         // 根据可用CPU核心数创建线程池，-1是为了留出一些资源给主线程和其他系统进程
         int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
         this.physicsExecutor = Executors.newFixedThreadPool(threadCount);
@@ -87,37 +91,47 @@ public class GameLogic {
         if (pos.y < 0) pos.y = 0;
         if (pos.x > 800 - 20) pos.x = 800 - 20;
         if (pos.y > 600 - 20) pos.y = 600 - 20;
-        transform.setPosition(pos);
+        transform.moveTo(pos);
     }
     
     /**
      * 并行更新物理系统
      */
     public void updatePhysics() {
-        List<PhysicsComponent> physicsComponents = scene.getComponents(PhysicsComponent.class);
-        if (physicsComponents.isEmpty()) return;
+        // 只处理同时拥有 Transform 与 Physics 的原型，按列读取组件
+        List<Archetype> archetypes = scene.getArchetypes().query(PHYSICS_MASK);
+        if (archetypes.isEmpty()) return;
 
         // 计算每个线程处理的组件数量
         int threadCount = Runtime.getRuntime().availableProcessors() - 1;
         threadCount = Math.max(2, threadCount);
-        int batchSize = Math.max(1, physicsComponents.size() / threadCount + 1);
 
         List<Future<?>> futures = new ArrayList<>();
 
-        // 将物理组件列表分割成多个批次，为每个批次创建一个任务并提交到线程池
-        for (int i = 0; i < physicsComponents.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, physicsComponents.size());
+        // 将每个原型的行分割成多个批次，为每个批次创建一个任务并提交到线程池
+        for (Archetype archetype : archetypes) {
+            int size = archetype.size();
+            if (size == 0) continue;
+            int transformColumn = archetype.columnOf(TransformComponent.class);
+            int physicsColumn = archetype.columnOf(PhysicsComponent.class);
+            int batchSize = Math.max(1, size / threadCount + 1);
 
-            // 处理一个批次的物理组件
-            Future<?> future = physicsExecutor.submit(() -> {
-                for (int j = start; j < end; j++) {
-                    PhysicsComponent physics = physicsComponents.get(j);
-                    updateSinglePhysics(physics);
-                }
-            });
+            for (int i = 0; i < size; i += batchSize) {
+                final int start = i;
+                final int end = Math.min(i + batchSize, size);
 
-            futures.add(future);
+                // 处理一个批次的物理组件
+                Future<?> future = physicsExecutor.submit(() -> {
+                    for (int row = start; row < end; row++) {
+                        if (!archetype.getEntity(row).isActive()) continue;
+                        TransformComponent transform = archetype.get(transformColumn, row);
+                        PhysicsComponent physics = archetype.get(physicsColumn, row);
+                        updateSinglePhysics(transform, physics);
+                    }
+                });
+
+                futures.add(future);
+            }
         }
 
         // 等待所有任务完成，以确保物理更新在下一帧渲染前全部结束
@@ -132,12 +146,12 @@ public class GameLogic {
 
     /**
      * 更新单个物理组件的逻辑，主要处理边界检测和反弹
+     * @param transform 所属对象的变换组件
      * @param physics 要更新的物理组件
      */
-    private void updateSinglePhysics(PhysicsComponent physics) {
+    private void updateSinglePhysics(TransformComponent transform, PhysicsComponent physics) {
         // 边界反弹
-        TransformComponent transform = physics.getOwner().getComponent(TransformComponent.class);
-        if (transform != null && physics.bounces) {
+        if (physics.bounces) {
             Vector2 pos = transform.getPosition();
             Vector2 velocity = physics.getVelocity();
 
@@ -155,13 +169,21 @@ public class GameLogic {
             if (pos.y < 0) pos.y = 0;
             if (pos.x > 800 - 15) pos.x = 800 - 15;
             if (pos.y > 600 - 15) pos.y = 600 - 15;
-            transform.setPosition(pos);
+            transform.moveTo(pos);
         }
     }
     
     /**
-     * 检查碰撞
+     * 检查碰撞，结果通过 getCollisionSystem().getContacts() 或接触监听器获取
      */
     public void checkCollisions() {
+        collisionSystem.update();
+    }
+    
+    /**
+     * 获取碰撞系统
+     */
+    public CollisionSystem getCollisionSystem() {
+        return collisionSystem;
     }
 }
@@ -9,19 +9,39 @@ import java.util.*;
 public class GameObject {
     protected boolean active;
     protected String name;
+    protected Tag tag;
     protected final String uuid;
     protected final List<Component<?>> components;
+    // 按组件类型ID索引的组件槽位，getComponent 直接按下标取值
+    private Component<?>[] slots;
+    private long signature;
+    // 由 ArchetypeStorage 维护
+    ArchetypeStorage storage;
+    Archetype archetype;
+    int archetypeRow = -1;
+    // 由场景索引维护：在各组件类型桶中的下标（按类型ID）以及在标签桶中的下标，-1 表示不在桶中
+    private final int[] indexSlots;
+    private int tagSlot = -1;
+    // 缓存的 name_uuid 标识及生成它时的名称
+    private String recordId;
+    private String recordIdName;
     
     public GameObject() {
         this.active = true;
         this.name = "GameObject";
+        this.tag = Tag.of(name);
         this.uuid = UUID.randomUUID().toString();
         this.components = new ArrayList<>();
+        this.slots = new Component<?>[ComponentType.MAX_TYPES];
+        this.signature = 0;
+        this.indexSlots = new int[ComponentType.MAX_TYPES];
+        Arrays.fill(indexSlots, -1);
     }
     
     public GameObject(String name) {
         this();
         this.name = name;
+        this.tag = Tag.of(name);
     }
     
     /**
@@ -46,15 +66,20 @@ public class GameObject {
     }
     
     /**
-     * 销毁游戏对象
+     * 销毁游戏对象，同时移出所在原型和组件索引
      */
     public void destroy() {
         this.active = false;
+        if (storage != null) {
+            storage.evict(this);
+        }
         // 销毁所有组件
         for (Component<?> component : components) {
             component.destroy();
         }
         components.clear();
+        Arrays.fill(slots, null);
+        signature = 0;
     }
     
     /**
@@ -63,33 +88,100 @@ public class GameObject {
     public <T extends Component<T>> T addComponent(T component) {
         component.setOwner(this);
         components.add(component);
+        long lineage = ComponentType.of(component.getClass()).getLineage();
+        fillSlots(component, lineage);
+        signature |= lineage;
+        if (storage != null) {
+            storage.relocate(this);
+        }
         component.initialize();
         return component;
     }
     
+    /**
+     * 移除指定类型的组件
+     */
+    public <T extends Component<T>> T removeComponent(Class<T> componentType) {
+        T component = getComponent(componentType);
+        if (component == null) {
+            return null;
+        }
+        components.remove(component);
+        component.destroy();
+        
+        // 重新计算槽位，同类型的其他组件会顶替被移除的组件
+        long lineage = ComponentType.of(component.getClass()).getLineage();
+        long remaining = 0;
+        for (long bits = lineage; bits != 0; bits &= bits - 1) {
+            slots[Long.numberOfTrailingZeros(bits)] = null;
+        }
+        for (Component<?> other : components) {
+            long otherLineage = ComponentType.of(other.getClass()).getLineage();
+            remaining |= otherLineage;
+            fillSlots(other, otherLineage & lineage);
+        }
+        signature = remaining;
+        if (storage != null) {
+            storage.relocate(this);
+        }
+        return component;
+    }
+    
     /**
      * 获取组件
      */
     @SuppressWarnings("unchecked")
     public <T extends Component<T>> T getComponent(Class<T> componentType) {
-        for (Component<?> component : components) {
-            if (componentType.isInstance(component)) {
-                return (T) component;
-            }
-        }
-        return null;
+        return (T) slots[ComponentType.of(componentType).getId()];
     }
     
     /**
      * 检查是否有指定类型的组件
      */
     public <T extends Component<T>> boolean hasComponent(Class<T> componentType) {
-        for (Component<?> component : components) {
-            if (componentType.isInstance(component)) {
-                return true;
+        return (signature & ComponentType.of(componentType).getBit()) != 0;
+    }
+    
+    /**
+     * 组件类型签名，每一位对应一种组件类型
+     */
+    public long getSignature() {
+        return signature;
+    }
+    
+    /**
+     * 在场景组件索引中指定类型桶内的下标，供场景索引使用
+     */
+    public int getIndexSlot(int typeId) {
+        return indexSlots[typeId];
+    }
+    
+    public void setIndexSlot(int typeId, int slot) {
+        indexSlots[typeId] = slot;
+    }
+    
+    /**
+     * 在场景标签索引桶内的下标，供场景索引使用
+     */
+    public int getTagSlot() {
+        return tagSlot;
+    }
+    
+    public void setTagSlot(int tagSlot) {
+        this.tagSlot = tagSlot;
+    }
+    
+    Component<?> slotOf(int typeId) {
+        return slots[typeId];
+    }
+    
+    private void fillSlots(Component<?> component, long lineage) {
+        for (long bits = lineage; bits != 0; bits &= bits - 1) {
+            int id = Long.numberOfTrailingZeros(bits);
+            if (slots[id] == null) {
+                slots[id] = component;
             }
         }
-        return false;
     }
     
     /**
@@ -128,11 +220,40 @@ public class GameObject {
         return name;
     }
     
+    /**
+     * 设置名称，不影响标签
+     */
     public void setName(String name) {
         this.name = name;
     }
     
+    /**
+     * 标签，默认取构造时的名称
+     */
+    public Tag getTag() {
+        return tag;
+    }
+    
+    public void setTag(Tag tag) {
+        Tag old = this.tag;
+        this.tag = tag;
+        if (storage != null && old != tag) {
+            storage.retag(this, old);
+        }
+    }
+    
     public String getUuid() {
         return uuid;
     }
+    
+    /**
+     * 录制用的唯一标识（名称 + "_" + UUID），名称不变时返回同一个缓存的字符串
+     */
+    public String getRecordId() {
+        if (recordId == null || recordIdName != name) {
+            recordIdName = name;
+            recordId = name + "_" + uuid;
+        }
+        return recordId;
+    }
 }
\ No newline at end of file
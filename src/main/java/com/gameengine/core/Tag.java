@@ -0,0 +1,48 @@
+package com.gameengine.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 驻留(interned)的对象标签
+ *
+ * 同名标签全局只有一个实例，可以直接用 == 比较；每个标签带一个从0开始的
+ * 连续ID，场景用它作为标签桶的下标。
+ */
+public final class Tag {
+    private static final ConcurrentMap<String, Tag> TAGS = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private final String name;
+    private final int id;
+
+    private Tag(String name, int id) {
+        this.name = name;
+        this.id = id;
+    }
+
+    /**
+     * 获取指定名称的标签，不存在时创建
+     */
+    public static Tag of(String name) {
+        Tag tag = TAGS.get(name);
+        if (tag == null) {
+            tag = TAGS.computeIfAbsent(name, n -> new Tag(n, nextId.getAndIncrement()));
+        }
+        return tag;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -14,14 +14,11 @@ public final class EntityFactory {
         return new GameObject("Player") {
             private Vector2 basePosition;
             @Override
-            public void update(float dt) {
-                super.update(dt);
-                TransformComponent tc = getComponent(TransformComponent.class);
-                if (tc != null) basePosition = tc.getPosition();
-            }
-            @Override
             public void render() {
-                if (basePosition == null) return;
+                TransformComponent transform = getComponent(TransformComponent.class);
+                if (transform == null) return;
+                // 使用插值后的渲染位置
+                basePosition = new Vector2(transform.getRenderX(), transform.getRenderY());
                 
                 // Check Invincibility from synchronized HealthComponent
                 HealthComponent hc = getComponent(HealthComponent.class);
@@ -1,15 +1,19 @@
 package com.gameengine.example;
 
 import com.gameengine.components.*;
+import com.gameengine.core.CollisionSystem;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameLogic;
+import com.gameengine.core.Tag;
 import com.gameengine.graphics.Renderer;
 import com.gameengine.input.InputManager;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 import com.gameengine.recording.RecordingConfig;
+import com.gameengine.recording.RecordingFormat;
 import com.gameengine.recording.RecordingService;
+import com.gameengine.spatial.UniformGrid;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -17,6 +21,16 @@ import java.util.List;
 import java.util.Random;
 
 public class GameScene extends Scene {
+    private static final Tag PLAYER = Tag.of("Player");
+    private static final Tag ENEMY = Tag.of("Enemy");
+    private static final Tag FIREBALL = Tag.of("Fireball");
+    private static final Tag BOMB = Tag.of("Bomb");
+
+    // 碰撞层
+    private static final int LAYER_PLAYER = 1;
+    private static final int LAYER_ENEMY = 1 << 1;
+    private static final int LAYER_PROJECTILE = 1 << 2;
+
     private GameEngine engine;
     private Renderer renderer;
     private InputManager inputManager;
@@ -27,6 +41,9 @@ public class GameScene extends Scene {
     private float fireballCooldown;
     private float bombCooldown;
     private boolean gameOver = false;
+    // 敌人空间网格，炸弹爆炸时重建
+    private final UniformGrid<GameObject> enemyGrid = new UniformGrid<>(64);
+    private final List<GameObject> nearby = new ArrayList<>();
 
     public GameScene(GameEngine engine) {
         super("GameScene");
@@ -41,6 +58,9 @@ public class GameScene extends Scene {
         this.random = new Random();
         this.time = 0;
         this.score = 0;
+        if (gameLogic != null) {
+            gameLogic.cleanup(); // 重开时释放上一局的物理线程池
+        }
         this.gameLogic = new GameLogic(this);
         this.fireballCooldown = 0;
         this.bombCooldown = 0;
@@ -53,8 +73,14 @@ public class GameScene extends Scene {
         // Start Recording
         try {
             new File("recordings").mkdirs();
-            String path = "recordings/session_" + System.currentTimeMillis() + ".jsonl";
+            String base = "recordings/session_" + System.currentTimeMillis();
+            String path = base + RecordingFormat.BINARY.getExtension();
+            // 无窗口全速运行时同一毫秒内可能重开多局
+            for (int i = 1; new File(path).exists(); i++) {
+                path = base + "_" + i + RecordingFormat.BINARY.getExtension();
+            }
             RecordingConfig cfg = new RecordingConfig(path);
+            cfg.blockWhenFull = engine.isHeadless();
             RecordingService svc = new RecordingService(cfg);
             engine.enableRecording(svc);
         } catch (Exception e) {
@@ -97,8 +123,9 @@ public class GameScene extends Scene {
 
         if (time > 2.0f) {
             int enemyCount = 0;
-            for (GameObject obj : getGameObjects()) {
-                if (obj.getName().equals("Enemy") && obj.isActive()) enemyCount++;
+            List<GameObject> enemies = findByTag(ENEMY);
+            for (int i = 0; i < enemies.size(); i++) {
+                if (enemies.get(i).isActive()) enemyCount++;
             }
             if (enemyCount < 50) createEnemy();
             time = 0;
@@ -135,14 +162,14 @@ public class GameScene extends Scene {
     // ============ LOGIC COPIED FROM MAIN.JAVA ============
     
     private void updateEnemies(float deltaTime) {
-        GameObject player = findObjectByName("Player");
+        GameObject player = findFirstByTag(PLAYER);
         if (player == null) return;
         TransformComponent playerTransform = player.getComponent(TransformComponent.class);
         if (playerTransform == null) return;
         Vector2 playerPos = playerTransform.getPosition();
 
-        for (GameObject enemy : getGameObjects()) {
-            if (enemy.getName().equals("Enemy") && enemy.isActive()) {
+        for (GameObject enemy : findByTag(ENEMY)) {
+            if (enemy.isActive()) {
                 TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
                 PhysicsComponent enemyPhysics = enemy.getComponent(PhysicsComponent.class);
                 if (enemyTransform != null && enemyPhysics != null) {
@@ -155,24 +182,28 @@ public class GameScene extends Scene {
     }
     
     private void renderHealthBars() {
-        for (GameObject obj : getGameObjects()) {
-            if (obj.hasComponent(HealthComponent.class)) {
-                HealthComponent health = obj.getComponent(HealthComponent.class);
+        List<GameObject> owners = findGameObjectsByComponent(HealthComponent.class);
+        List<HealthComponent> healths = getComponents(HealthComponent.class);
+        for (int i = 0; i < owners.size(); i++) {
+            GameObject obj = owners.get(i);
+            if (obj.isActive()) {
+                HealthComponent health = healths.get(i);
                 TransformComponent transform = obj.getComponent(TransformComponent.class);
                 if (transform == null) continue;
-                Vector2 pos = transform.getPosition();
+                float posX = transform.getRenderX();
+                float posY = transform.getRenderY();
                 float healthPercentage = health.currentHealth / health.maxHealth;
                 float barWidth = 30;
                 float barHeight = 5;
                 float yOffset = -30;
-                float x = pos.x - (barWidth / 2);
-                if (obj.getName().equals("Enemy")) {
+                float x = posX - (barWidth / 2);
+                if (obj.getTag() == ENEMY) {
                     barWidth = 25;
                     yOffset = -10;
                     float enemyWidth = 20;
-                    x = pos.x + (enemyWidth / 2) - (barWidth / 2);
+                    x = posX + (enemyWidth / 2) - (barWidth / 2);
                 }
-                float y = pos.y + yOffset;
+                float y = posY + yOffset;
                 renderer.drawRect(x, y, barWidth, barHeight, 0.2f, 0.2f, 0.2f, 1.0f);
                 renderer.drawRect(x, y, barWidth * healthPercentage, barHeight, 1.0f, 0.0f, 0.0f, 1.0f);
             }
@@ -182,7 +213,7 @@ public class GameScene extends Scene {
     private void handleShooting() {
         if (inputManager.isMouseButtonJustPressed(1) && fireballCooldown <= 0) {
             fireballCooldown = 0.6f;
-            GameObject player = findObjectByName("Player");
+            GameObject player = findFirstByTag(PLAYER);
             if (player != null) {
                 TransformComponent playerTransform = player.getComponent(TransformComponent.class);
                 if (playerTransform != null) {
@@ -202,13 +233,16 @@ public class GameScene extends Scene {
         physics.setVelocity(direction.multiply(500));
         physics.setFriction(1.0f);
         physics.bounces = false;
+        ColliderComponent collider = fireball.addComponent(new ColliderComponent(ColliderComponent.Shape.AABB, 10, 10));
+        collider.setLayer(LAYER_PROJECTILE);
+        collider.setMask(LAYER_ENEMY);
         addGameObject(fireball);
     }
 
     private void handleBombShooting() {
         if (inputManager.isMouseButtonJustPressed(3) && bombCooldown <= 0) {
             bombCooldown = 5.0f;
-            GameObject player = findObjectByName("Player");
+            GameObject player = findFirstByTag(PLAYER);
             if (player != null) {
                 TransformComponent playerTransform = player.getComponent(TransformComponent.class);
                 if (playerTransform != null) {
@@ -233,9 +267,9 @@ public class GameScene extends Scene {
     }
 
     private void updateBombs(float deltaTime) {
-        GameObject player = findObjectByName("Player");
-        for (GameObject bomb : getGameObjects()) {
-            if (bomb.getName().equals("Bomb")) {
+        GameObject player = findFirstByTag(PLAYER);
+        for (GameObject bomb : findByTag(BOMB)) {
+            if (bomb.isActive()) {
                 BombComponent bombComp = bomb.getComponent(BombComponent.class);
                 if (bombComp == null) continue;
                 TransformComponent bombTransform = bomb.getComponent(TransformComponent.class);
@@ -265,8 +299,11 @@ public class GameScene extends Scene {
                         float innerRadius = 75;
                         float outerRadius = 150;
                         Vector2 bombPos = bombTransform.getPosition();
-                        for (GameObject enemy : getGameObjects()) {
-                            if (enemy.getName().equals("Enemy") && enemy.isActive()) {
+                        rebuildEnemyGrid();
+                        nearby.clear();
+                        enemyGrid.queryRadius(bombPos.x, bombPos.y, outerRadius, nearby);
+                        for (GameObject enemy : nearby) {
+                            if (enemy.isActive()) {
                                 TransformComponent enemyTransform = enemy.getComponent(TransformComponent.class);
                                 HealthComponent enemyHealth = enemy.getComponent(HealthComponent.class);
                                 if (enemyTransform != null && enemyHealth != null) {
@@ -370,75 +407,58 @@ public class GameScene extends Scene {
         addGameObject(explosion);
     }
 
-    private void checkCollisionsAndScore() {
-        GameObject player = findObjectByName("Player");
-        List<GameObject> enemies = new ArrayList<>();
-        List<GameObject> fireballs = new ArrayList<>();
-        for (GameObject obj : getGameObjects()) {
-            if (obj.getName().equals("Enemy") && obj.isActive()) enemies.add(obj);
-            else if (obj.getName().equals("Fireball") && obj.isActive()) fireballs.add(obj);
+    private void rebuildEnemyGrid() {
+        enemyGrid.clear();
+        for (GameObject enemy : findByTag(ENEMY)) {
+            if (!enemy.isActive()) continue;
+            TransformComponent et = enemy.getComponent(TransformComponent.class);
+            RenderComponent er = enemy.getComponent(RenderComponent.class);
+            if (et == null || er == null) continue;
+            enemyGrid.insert(enemy, et.getX(), et.getY(), er.getWidth(), er.getHeight());
         }
+    }
 
-        for (GameObject fireball : fireballs) {
-            TransformComponent ft = fireball.getComponent(TransformComponent.class);
-            RenderComponent fr = fireball.getComponent(RenderComponent.class);
-            if (ft == null || fr == null) continue;
-            for (GameObject enemy : enemies) {
-                if (!enemy.isActive()) continue;
-                TransformComponent et = enemy.getComponent(TransformComponent.class);
-                RenderComponent er = enemy.getComponent(RenderComponent.class);
-                if (et == null || er == null) continue;
-                
-                Vector2 fp = ft.getPosition(); Vector2 fsz = fr.getSize();
-                Vector2 ep = et.getPosition(); Vector2 esz = er.getSize();
-                
-                if (fp.x < ep.x + esz.x && fp.x + fsz.x > ep.x && fp.y < ep.y + esz.y && fp.y + fsz.y > ep.y) {
-                    HealthComponent eh = enemy.getComponent(HealthComponent.class);
-                    if (eh != null) {
-                        eh.takeDamage(30);
-                        if (eh.currentHealth <= 0) {
-                            enemy.destroy();
-                            score += 10;
-                            if (player != null) {
-                                HealthComponent ph = player.getComponent(HealthComponent.class);
-                                if (ph != null) ph.currentHealth = Math.min(ph.maxHealth, ph.currentHealth + 10);
-                            }
+    private void checkCollisionsAndScore() {
+        GameObject player = findFirstByTag(PLAYER);
+        gameLogic.checkCollisions();
+
+        List<CollisionSystem.Contact> contacts = gameLogic.getCollisionSystem().getContacts();
+        for (int i = 0; i < contacts.size(); i++) {
+            CollisionSystem.Contact contact = contacts.get(i);
+            GameObject a = contact.getA().getOwner();
+            GameObject b = contact.getB().getOwner();
+            GameObject enemy = a.getTag() == ENEMY ? a : b;
+            GameObject other = enemy == a ? b : a;
+            if (enemy.getTag() != ENEMY || !enemy.isActive() || !other.isActive()) continue;
+
+            if (other.getTag() == FIREBALL) {
+                HealthComponent eh = enemy.getComponent(HealthComponent.class);
+                if (eh != null) {
+                    eh.takeDamage(30);
+                    if (eh.currentHealth <= 0) {
+                        enemy.destroy();
+                        score += 10;
+                        if (player != null) {
+                            HealthComponent ph = player.getComponent(HealthComponent.class);
+                            if (ph != null) ph.currentHealth = Math.min(ph.maxHealth, ph.currentHealth + 10);
                         }
                     }
-                    fireball.destroy();
-                    break;
                 }
-            }
-        }
-
-        if (player != null) {
-            HealthComponent ph = player.getComponent(HealthComponent.class);
-            TransformComponent pt = player.getComponent(TransformComponent.class);
-            if (ph != null && !ph.isInvincible && pt != null) {
-                float pl = pt.getPosition().x - 13;
-                float ptop = pt.getPosition().y - 22;
-                float pw = 26;
-                float ph_h = 32;
-                
-                for (GameObject enemy : enemies) {
-                    if (!enemy.isActive()) continue;
-                    TransformComponent et = enemy.getComponent(TransformComponent.class);
-                    RenderComponent er = enemy.getComponent(RenderComponent.class);
-                    if (et == null || er == null) continue;
-                    Vector2 ep = et.getPosition(); Vector2 esz = er.getSize();
-                    if (pl < ep.x + esz.x && pl + pw > ep.x && ptop < ep.y + esz.y && ptop + ph_h > ep.y) {
-                        ph.takeDamage(50);
-                        ph.setInvincible(2.0f);
-                        if (ph.currentHealth <= 0) gameOver = true;
-                    }
+                other.destroy();
+            } else if (other == player) {
+                HealthComponent ph = player.getComponent(HealthComponent.class);
+                if (ph != null && !ph.isInvincible) {
+                    ph.takeDamage(50);
+                    ph.setInvincible(2.0f);
+                    if (ph.currentHealth <= 0) gameOver = true;
                 }
             }
         }
     }
 
     private void removeOffscreenObjects() {
-        for (GameObject obj : getGameObjects()) {
-            if (obj.getName().equals("Fireball")) {
+        for (GameObject obj : findByTag(FIREBALL)) {
+            if (obj.isActive()) {
                 TransformComponent t = obj.getComponent(TransformComponent.class);
                 if (t != null) {
                     Vector2 p = t.getPosition();
@@ -453,13 +473,6 @@ public class GameScene extends Scene {
         initialize(); // reset everything
     }
 
-    private GameObject findObjectByName(String name) {
-        for (GameObject obj : getGameObjects()) {
-            if (obj.getName().equals(name)) return obj;
-        }
-        return null;
-    }
-
     private void createPlayer() {
         // Using the Factory for Visuals is possible but here we need the full logic object
         // So we keep the original logic but ensure it matches the factory visual
@@ -469,12 +482,13 @@ public class GameScene extends Scene {
             public void update(float deltaTime) {
                 super.update(deltaTime);
                 updateComponents(deltaTime);
-                TransformComponent transform = getComponent(TransformComponent.class);
-                if (transform != null) basePosition = transform.getPosition();
             }
             @Override
             public void render() {
-                if (basePosition == null) return;
+                TransformComponent transform = getComponent(TransformComponent.class);
+                if (transform == null) return;
+                // 使用插值后的渲染位置
+                basePosition = new Vector2(transform.getRenderX(), transform.getRenderY());
                 HealthComponent health = getComponent(HealthComponent.class);
                 boolean isInvincible = health != null && health.isInvincible;
                 // Logic copied from Main.java
@@ -493,6 +507,10 @@ public class GameScene extends Scene {
         PhysicsComponent physics = player.addComponent(new PhysicsComponent(1.0f));
         physics.setFriction(0.95f);
         player.addComponent(new HealthComponent(100));
+        ColliderComponent collider = player.addComponent(new ColliderComponent(ColliderComponent.Shape.AABB, 26, 32));
+        collider.setOffset(-13, -22);
+        collider.setLayer(LAYER_PLAYER);
+        collider.setMask(LAYER_ENEMY);
         addGameObject(player);
     }
 
@@ -510,6 +528,9 @@ public class GameScene extends Scene {
         physics.setVelocity(new Vector2((random.nextFloat() - 0.5f) * 100, (random.nextFloat() - 0.5f) * 100));
         physics.setFriction(0.98f);
         enemy.addComponent(new HealthComponent(50));
+        ColliderComponent collider = enemy.addComponent(new ColliderComponent(ColliderComponent.Shape.AABB, 20, 20));
+        collider.setLayer(LAYER_ENEMY);
+        collider.setMask(LAYER_PLAYER | LAYER_PROJECTILE);
         addGameObject(enemy);
     }
 
@@ -0,0 +1,57 @@
+package com.gameengine.example;
+
+import com.gameengine.core.GameEngine;
+import com.gameengine.input.InputScript;
+
+/**
+ * 无窗口模拟程序
+ *
+ * 不创建窗口和渲染器，用随机输入脚本全速驱动 GameScene，输出每秒逻辑帧数。
+ * 可用于长时间压力测试和批量生成录制文件。
+ *
+ * 参数：--ticks N（逻辑帧数，默认 36000）、--seed S（输入脚本种子）、--no-record（不写录制文件）
+ */
+public class HeadlessRunner {
+    public static void main(String[] args) {
+        long ticks = 36000;
+        long seed = 42;
+        boolean record = true;
+        for (int i = 0; i < args.length; i++) {
+            if ("--ticks".equals(args[i]) && i + 1 < args.length) {
+                ticks = Long.parseLong(args[++i]);
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if ("--no-record".equals(args[i])) {
+                record = false;
+            }
+        }
+
+        GameEngine engine = new GameEngine(null, 800, 600, "Headless");
+        engine.setRecordingEnabled(record);
+        engine.setInputScript(InputScript.random(seed, ticks, 800, 600));
+        engine.setScene(new GameScene(engine));
+
+        float dt = 1.0f / engine.getTickRate();
+        long reportEvery = (long) engine.getTickRate() * 60;
+        long start = System.nanoTime();
+        long lastReport = start;
+        for (long tick = 0; tick < ticks; tick++) {
+            if (!engine.step(dt)) {
+                break;
+            }
+            if ((tick + 1) % reportEvery == 0) {
+                long now = System.nanoTime();
+                System.out.printf("tick %d: %.0f ticks/s, %d objects%n", tick + 1,
+                        reportEvery * 1e9 / (now - lastReport), engine.getCurrentScene().getGameObjects().size());
+                lastReport = now;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long done = engine.getTickCount();
+        System.out.printf("完成 %d 个逻辑帧（模拟 %.1f 秒），耗时 %.2f 秒，平均 %.0f ticks/s%n",
+                done, done * dt, elapsed / 1e9, done * 1e9 / Math.max(1, elapsed));
+
+        engine.stop();
+        System.exit(0);
+    }
+}
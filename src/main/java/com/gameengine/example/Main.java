@@ -1,6 +1,9 @@
 package com.gameengine.example;
 
 import com.gameengine.core.GameEngine;
+import com.gameengine.graphics.RenderBackend;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 游戏主程序
@@ -10,8 +13,15 @@ public class Main {
         System.out.println("启动游戏引擎...");
 
         try {
-            // 创建游戏引擎
-            GameEngine engine = new GameEngine(800, 600, "Huluwa VS Monsters");
+            // 创建游戏引擎，--active 使用主动渲染，--gpu 使用 OpenGL 渲染
+            List<String> options = Arrays.asList(args);
+            RenderBackend backend = RenderBackend.SWING;
+            if (options.contains("--gpu")) {
+                backend = RenderBackend.GPU;
+            } else if (options.contains("--active")) {
+                backend = RenderBackend.SWING_ACTIVE;
+            }
+            GameEngine engine = new GameEngine(800, 600, "Huluwa VS Monsters", backend);
             
             // 设置初始场景为菜单
             engine.setScene(new MenuScene(engine));
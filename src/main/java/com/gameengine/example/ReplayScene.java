@@ -1,6 +1,7 @@
 package com.gameengine.example;
 
 import com.gameengine.components.HealthComponent;
+import com.gameengine.components.RenderComponent;
 import com.gameengine.components.TransformComponent;
 import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameObject;
@@ -8,13 +9,33 @@ import com.gameengine.graphics.Renderer;
 import com.gameengine.input.InputManager;
 import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
-import com.gameengine.recording.RecordingJson;
+import com.gameengine.recording.ColumnarTimeline;
 import com.gameengine.recording.FileRecordingStorage;
+import com.gameengine.recording.Keyframe;
+import com.gameengine.recording.KeyframeBuffer;
+import com.gameengine.recording.KeyframeTimeline;
+import com.gameengine.recording.ParallelRecordingLoader;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
+/**
+ * 回放场景
+ *
+ * 选中录制后由 {@link ParallelRecordingLoader} 在后台并行解析，解析好的关键帧按时间顺序
+ * 陆续出现在 {@link KeyframeBuffer} 中，播放立即从头开始；播放追上加载进度时停在已加载的末尾等待。
+ * 左右方向键可以在已加载的范围内前后跳转，上下方向键调整播放速度，R 键切换倒放。
+ * 游戏线程每帧把一批新加载的关键帧转存进 {@link ColumnarTimeline}，插值直接读取其中按实体编号存放的数组；
+ * 当前时刻所在的关键帧由 {@link KeyframeTimeline} 的游标查找。
+ */
 public class ReplayScene extends Scene {
+    private static final float SEEK_STEP = 5.0f;
+    private static final float MIN_SPEED = 0.25f;
+    private static final float MAX_SPEED = 8.0f;
+    // 每帧最多转存的关键帧数，避免加载很快时一帧内转存太多造成卡顿
+    private static final int CONVERT_BATCH = 512;
+
     private final GameEngine engine;
     private String recordingPath;
     private Renderer renderer;
@@ -22,37 +43,31 @@ public class ReplayScene extends Scene {
     private float time;
     private Keyframe.GlobalInfo currentGlobal;
     
-    // Keyframe Structure
-    private static class Keyframe {
-        static class GlobalInfo {
-            int score;
-            float fcd;
-            float bcd;
-            boolean over;
-        }
-        static class EntityInfo {
-            String id;
-            Vector2 pos;
-            String rt; 
-            float w, h;
-            float r=1,g=1,b=1,a=1;
-            float hp = -1;
-            float maxHp = -1;
-            int v = 1; // Default visible
-            int inv = 0; // Default not invincible
-        }
-        double t;
-        GlobalInfo global;
-        Map<String, EntityInfo> entities = new HashMap<>();
-    }
+    private KeyframeBuffer keyframes;
+    private ColumnarTimeline columns;
+    private KeyframeTimeline timeline;
+    private float playbackSpeed = 1.0f;
+    private boolean reverse;
+    private String loadError;
+    private boolean trimmed;
 
-    private final List<Keyframe> keyframes = new ArrayList<>();
-    private final Map<String, GameObject> activeObjects = new HashMap<>();
+    // 按实体编号存放的场景对象；active 是当前在场景中的实体编号
+    private GameObject[] objects = new GameObject[64];
+    private int[] active = new int[64];
+    private int[] nextActive = new int[64];
+    private int activeCount;
+    // seen[e] == stamp 表示实体 e 出现在本次同步的帧中
+    private int[] seen = new int[64];
+    private int stamp;
+    private final Vector2 scratch = new Vector2();
 
     // File Selection Mode
     private List<File> recordingFiles;
     private int selectedIndex = 0;
 
+    /**
+     * @param path 直接加载的录制文件，为 null 时先显示文件列表
+     */
     public ReplayScene(GameEngine engine, String path) {
         super("Replay");
         this.engine = engine;
@@ -65,12 +80,11 @@ public class ReplayScene extends Scene {
         this.renderer = engine.getRenderer();
         this.input = engine.getInputManager();
         this.time = 0f;
-        this.keyframes.clear();
-        this.activeObjects.clear();
+        resetObjects();
         this.currentGlobal = null;
         
         if (recordingPath != null) {
-            loadRecording(recordingPath);
+            if (keyframes == null) loadRecording(recordingPath);
         } else {
             FileRecordingStorage storage = new FileRecordingStorage();
             recordingFiles = storage.listRecordings();
@@ -82,6 +96,7 @@ public class ReplayScene extends Scene {
         super.update(deltaTime);
         
         if (input.isKeyJustPressed(27)) { // ESC
+            closeRecording();
             engine.setScene(new MenuScene(engine));
             return;
         }
@@ -91,32 +106,64 @@ public class ReplayScene extends Scene {
             return;
         }
 
-        if (keyframes.isEmpty()) return;
+        if (keyframes == null) return;
+        if (keyframes.getError() != null && loadError == null) {
+            loadError = "读取录制失败: " + keyframes.getError().getMessage();
+            System.err.println(loadError);
+        }
+        if (columns.size() < keyframes.size()) {
+            columns.appendFrom(keyframes, CONVERT_BATCH);
+        }
+        // 加载结束且全部转存后才算完整
+        boolean complete = keyframes.isComplete() && columns.size() == keyframes.size();
+        if (complete && !trimmed) {
+            columns.trim();
+            trimmed = true;
+        }
+        if (columns.size() == 0) return;
 
-        time += deltaTime;
-        double lastT = keyframes.get(keyframes.size() - 1).t;
-        if (time > lastT) {
-            time = 0; // Loop
-            // Reset scene for looping
-            clear();
-            activeObjects.clear();
+        if (input.isKeyJustPressed(38)) { // UP Arrow
+            playbackSpeed = Math.min(MAX_SPEED, playbackSpeed * 2);
+        } else if (input.isKeyJustPressed(40)) { // DOWN Arrow
+            playbackSpeed = Math.max(MIN_SPEED, playbackSpeed / 2);
+        }
+        if (input.isKeyJustPressed(82)) { // R
+            reverse = !reverse;
         }
 
-        // Interpolation Logic
-        Keyframe a = keyframes.get(0);
-        Keyframe b = keyframes.get(keyframes.size() - 1);
-        for (int i = 0; i < keyframes.size() - 1; i++) {
-            Keyframe k1 = keyframes.get(i);
-            Keyframe k2 = keyframes.get(i + 1);
-            if (time >= k1.t && time <= k2.t) { a = k1; b = k2; break; }
+        // 只能播放到已加载的位置，加载完成后才循环
+        double startTime = keyframes.getStartTime();
+        double loadedEnd = columns.getTime(columns.size() - 1);
+        time += (reverse ? -deltaTime : deltaTime) * playbackSpeed;
+        if (input.isKeyJustPressed(37)) { // LEFT Arrow
+            time = (float) Math.max(startTime, time - SEEK_STEP);
+        } else if (input.isKeyJustPressed(39)) { // RIGHT Arrow
+            time = (float) Math.min(loadedEnd, time + SEEK_STEP);
         }
+        if (time > loadedEnd) {
+            if (complete) {
+                time = 0; // Loop
+                // Reset scene for looping
+                resetObjects();
+            } else {
+                time = (float) loadedEnd;
+            }
+        } else if (time < startTime && reverse) {
+            if (complete) {
+                time = (float) loadedEnd; // 倒放到开头后从结尾继续
+                resetObjects();
+            } else {
+                time = (float) startTime;
+            }
+        }
+
+        // Interpolation Logic
+        int a = timeline.seek(time);
+        int b = timeline.next();
         
-        currentGlobal = a.global;
-        
-        double span = Math.max(1e-6, b.t - a.t);
-        double u = Math.min(1.0, Math.max(0.0, (time - a.t) / span));
+        currentGlobal = columns.getGlobal(a);
         
-        syncObjects(a, b, (float)u);
+        syncObjects(a, b, (float) timeline.alpha(time));
     }
 
     @Override
@@ -134,6 +181,17 @@ public class ReplayScene extends Scene {
 
         renderer.drawString("REPLAY MODE", 320, 30, 0.5f, 1f, 0.5f, 1f, 24);
         renderer.drawString("Press ESC to Return", 310, 550, 0.8f, 0.8f, 0.8f, 1f, 20);
+        if (keyframes != null) {
+            String position = String.format("%.1f / %.1f s  %s x%.2f  (LEFT/RIGHT: -/+%.0fs, UP/DOWN: speed, R: reverse)",
+                    time, keyframes.getEndTime(), reverse ? "<<" : ">>", playbackSpeed, SEEK_STEP);
+            if (!keyframes.isComplete() && keyframes.getTotalSegments() > 0) {
+                position += String.format("  loading %d%%", keyframes.getLoadedSegments() * 100 / keyframes.getTotalSegments());
+            }
+            renderer.drawString(position, 120, 575, 0.6f, 0.6f, 0.6f, 1f, 16);
+        }
+        if (loadError != null) {
+            renderer.drawString(loadError, 100, 595, 1, 0.5f, 0.5f, 1, 14);
+        }
     }
     
     private void renderUI() {
@@ -156,7 +214,8 @@ public class ReplayScene extends Scene {
     }
     
     private void renderHealthBars() {
-        for (GameObject obj : activeObjects.values()) {
+        for (int i = 0; i < activeCount; i++) {
+            GameObject obj = objects[active[i]];
             HealthComponent hc = obj.getComponent(HealthComponent.class);
             TransformComponent tc = obj.getComponent(TransformComponent.class);
             if (hc != null && tc != null && hc.maxHealth > 0) {
@@ -189,13 +248,15 @@ public class ReplayScene extends Scene {
         } else if (input.isKeyJustPressed(40) || input.isKeyJustPressed(83)) { // DOWN Arrow or S
             selectedIndex = (selectedIndex + 1) % recordingFiles.size();
         } else if (input.isKeyJustPressed(10) || input.isKeyJustPressed(32)) { // ENTER/SPACE
-            recordingPath = recordingFiles.get(selectedIndex).getAbsolutePath();
-            initialize(); 
+            loadRecording(recordingFiles.get(selectedIndex).getAbsolutePath());
         }
     }
 
     private void renderFileList() {
         renderer.drawString("SELECT RECORDING", 250, 50, 1, 1, 1, 1, 30);
+        if (loadError != null) {
+            renderer.drawString(loadError, 100, 560, 1, 0.5f, 0.5f, 1, 18);
+        }
         if (recordingFiles == null || recordingFiles.isEmpty()) {
             renderer.drawString("No recordings found.", 300, 300, 1, 0.5f, 0.5f, 1, 24);
             return;
@@ -213,165 +274,147 @@ public class ReplayScene extends Scene {
         }
     }
 
+    /**
+     * 开始在后台加载录制，打开成功后立即进入播放
+     */
     private void loadRecording(String path) {
-        keyframes.clear();
-        FileRecordingStorage storage = new FileRecordingStorage();
+        closeRecording();
         try {
-            for (String line : storage.readLines(path)) {
-                if (line.contains("\"type\":\"keyframe\"")) {
-                    Keyframe kf = new Keyframe();
-                    kf.t = RecordingJson.parseDouble(RecordingJson.field(line, "t"));
-                    
-                    // Global Parsing
-                    String gStr = RecordingJson.field(line, "global");
-                    if (gStr != null) {
-                        kf.global = new Keyframe.GlobalInfo();
-                        kf.global.score = (int)RecordingJson.parseDouble(RecordingJson.field(gStr, "score"));
-                        kf.global.fcd = (float)RecordingJson.parseDouble(RecordingJson.field(gStr, "fcd"));
-                        kf.global.bcd = (float)RecordingJson.parseDouble(RecordingJson.field(gStr, "bcd"));
-                        String overStr = RecordingJson.field(gStr, "over");
-                        kf.global.over = "true".equalsIgnoreCase(overStr);
-                    }
+            keyframes = new ParallelRecordingLoader(new FileRecordingStorage()).loadAsync(path);
+            columns = new ColumnarTimeline();
+            timeline = new KeyframeTimeline(columns);
+            trimmed = false;
+            recordingPath = path;
+            loadError = null;
+            time = 0f;
+            resetObjects();
+            currentGlobal = null;
+        } catch (IOException e) {
+            recordingPath = null;
+            loadError = "读取录制失败: " + e.getMessage();
+            System.err.println(loadError);
+            if (recordingFiles == null) {
+                recordingFiles = new FileRecordingStorage().listRecordings();
+            }
+        }
+    }
 
-                    int idx = line.indexOf("\"entities\":[");
-                    if (idx >= 0) {
-                        int bracket = line.indexOf('[', idx);
-                        String arr = bracket >= 0 ? RecordingJson.extractArray(line, bracket) : "";
-                        String[] parts = RecordingJson.splitTopLevel(arr);
-                        for (String p : parts) {
-                            Keyframe.EntityInfo ei = new Keyframe.EntityInfo();
-                            ei.id = RecordingJson.stripQuotes(RecordingJson.field(p, "id"));
-                            double x = RecordingJson.parseDouble(RecordingJson.field(p, "x"));
-                            double y = RecordingJson.parseDouble(RecordingJson.field(p, "y"));
-                            ei.pos = new Vector2((float)x, (float)y);
-                            ei.rt = RecordingJson.stripQuotes(RecordingJson.field(p, "rt"));
-                            ei.w = (float)RecordingJson.parseDouble(RecordingJson.field(p, "w"));
-                            ei.h = (float)RecordingJson.parseDouble(RecordingJson.field(p, "h"));
-                            
-                            String hpStr = RecordingJson.field(p, "hp");
-                            if (hpStr != null) {
-                                ei.hp = (float)RecordingJson.parseDouble(hpStr);
-                                ei.maxHp = (float)RecordingJson.parseDouble(RecordingJson.field(p, "maxHp"));
-                            }
-                            
-                            String vStr = RecordingJson.field(p, "v");
-                            if (vStr != null) ei.v = (int)RecordingJson.parseDouble(vStr);
-                            
-                            String invStr = RecordingJson.field(p, "inv");
-                            if (invStr != null) ei.inv = (int)RecordingJson.parseDouble(invStr);
+    private void closeRecording() {
+        if (keyframes != null) {
+            keyframes.cancel();
+            keyframes = null;
+            columns = null;
+            timeline = null;
+        }
+    }
 
-                            String colorArr = RecordingJson.field(p, "color");
-                            if (colorArr != null && colorArr.startsWith("[")) {
-                                String c = colorArr.substring(1, Math.max(1, colorArr.indexOf(']', 1)));
-                                String[] cs = c.split(",");
-                                if (cs.length >= 3) {
-                                    try {
-                                        ei.r = Float.parseFloat(cs[0].trim());
-                                        ei.g = Float.parseFloat(cs[1].trim());
-                                        ei.b = Float.parseFloat(cs[2].trim());
-                                        if (cs.length >= 4) ei.a = Float.parseFloat(cs[3].trim());
-                                    } catch (Exception ignored) {}
-                                }
-                            }
-                            kf.entities.put(ei.id, ei);
-                        }
-                    }
-                    keyframes.add(kf);
-                }
-            }
-            keyframes.sort(Comparator.comparingDouble(k -> k.t));
-        } catch (Exception ignored) {}
+    /**
+     * 移除全部回放对象
+     */
+    private void resetObjects() {
+        clear();
+        Arrays.fill(objects, null);
+        activeCount = 0;
     }
 
-    private GameObject createVisualFor(Keyframe.EntityInfo ei) {
+    private GameObject createVisualFor(int e, int frame) {
         GameObject obj;
-        String rawId = ei.id.contains("_") ? ei.id.substring(0, ei.id.lastIndexOf('_')) : ei.id;
+        String rawId = columns.getName(e);
         
         if ("Player".equals(rawId)) {
             obj = EntityFactory.createPlayerVisual(renderer);
         } else {
-            obj = EntityFactory.createRenderableVisual(renderer, rawId, ei.rt, ei.w, ei.h, ei.r, ei.g, ei.b, ei.a);
+            obj = EntityFactory.createRenderableVisual(renderer, rawId, columns.getRenderType(e),
+                    columns.getWidth(e, frame), columns.getHeight(e, frame),
+                    columns.getColor(e, frame, 0), columns.getColor(e, frame, 1),
+                    columns.getColor(e, frame, 2), columns.getColor(e, frame, 3));
         }
         
-        obj.setName(ei.id); 
+        obj.setName(columns.getId(e)); 
         
+        scratch.x = columns.getX(e, frame);
+        scratch.y = columns.getY(e, frame);
         TransformComponent tc = obj.getComponent(TransformComponent.class);
-        if (tc == null) obj.addComponent(new TransformComponent(ei.pos));
-        else tc.setPosition(ei.pos);
+        if (tc == null) obj.addComponent(new TransformComponent(new Vector2(scratch.x, scratch.y)));
+        else tc.setPosition(scratch);
         
-        if (ei.hp >= 0) {
-            obj.addComponent(new HealthComponent(ei.maxHp));
+        if (columns.getHp(e, frame) >= 0) {
+            obj.addComponent(new HealthComponent(columns.getMaxHp(e, frame)));
         }
         
         return obj;
     }
 
-    private void syncObjects(Keyframe a, Keyframe b, float u) {
-        Set<String> presentIds = new HashSet<>();
+    private void syncObjects(int a, int b, float u) {
+        int total = columns.getTotalEntities();
+        if (total > objects.length) {
+            int capacity = Math.max(objects.length * 2, total);
+            objects = Arrays.copyOf(objects, capacity);
+            active = Arrays.copyOf(active, capacity);
+            nextActive = Arrays.copyOf(nextActive, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+        }
+        stamp++;
+        float v = 1.0f - u;
+        int count = columns.getEntityCount(a);
+        int[] present = nextActive;
         
-        for (String id : a.entities.keySet()) {
-            presentIds.add(id);
-            Keyframe.EntityInfo infoA = a.entities.get(id);
-            Keyframe.EntityInfo infoB = b.entities.get(id); 
+        for (int k = 0; k < count; k++) {
+            int e = columns.getEntity(a, k);
+            seen[e] = stamp;
+            present[k] = e;
+            // 下一帧中没有这个实体时保持当前帧的状态
+            int eb = columns.has(e, b) ? b : a;
             
-            GameObject obj = activeObjects.get(id);
+            GameObject obj = objects[e];
             if (obj == null) {
-                obj = createVisualFor(infoA);
-                activeObjects.put(id, obj);
+                obj = createVisualFor(e, a);
+                objects[e] = obj;
                 addGameObject(obj);
             }
             
             // Interpolate
-            Vector2 posA = infoA.pos;
-            Vector2 posB = (infoB != null) ? infoB.pos : infoA.pos;
-            
-            float x = (float)((1.0 - u) * posA.x + u * posB.x);
-            float y = (float)((1.0 - u) * posA.y + u * posB.y);
-            
             TransformComponent tc = obj.getComponent(TransformComponent.class);
-            if (tc != null) tc.setPosition(new Vector2(x, y));
+            if (tc != null) {
+                scratch.x = v * columns.getX(e, a) + u * columns.getX(e, eb);
+                scratch.y = v * columns.getY(e, a) + u * columns.getY(e, eb);
+                tc.setPosition(scratch);
+            }
             
             // Sync Visuals
-            com.gameengine.components.RenderComponent rc = obj.getComponent(com.gameengine.components.RenderComponent.class);
+            RenderComponent rc = obj.getComponent(RenderComponent.class);
             if (rc != null) {
-                float wA = infoA.w;
-                float hA = infoA.h;
-                float wB = (infoB != null) ? infoB.w : wA;
-                float hB = (infoB != null) ? infoB.h : hA;
-                float w = (float)((1.0 - u) * wA + u * wB);
-                float h = (float)((1.0 - u) * hA + u * hB);
-                rc.setSize(new Vector2(w, h));
+                scratch.x = v * columns.getWidth(e, a) + u * columns.getWidth(e, eb);
+                scratch.y = v * columns.getHeight(e, a) + u * columns.getHeight(e, eb);
+                rc.setSize(scratch);
 
-                float rA = infoA.r; float gA = infoA.g; float bA = infoA.b; float aA = infoA.a;
-                float rB = (infoB != null) ? infoB.r : rA;
-                float gB = (infoB != null) ? infoB.g : gA;
-                float bB = (infoB != null) ? infoB.b : bA;
-                float aB = (infoB != null) ? infoB.a : aA;
-                float r = (float)((1.0 - u) * rA + u * rB);
-                float g = (float)((1.0 - u) * gA + u * gB);
-                float blue = (float)((1.0 - u) * bA + u * bB);
-                float alpha = (float)((1.0 - u) * aA + u * aB);
+                float r = v * columns.getColor(e, a, 0) + u * columns.getColor(e, eb, 0);
+                float g = v * columns.getColor(e, a, 1) + u * columns.getColor(e, eb, 1);
+                float blue = v * columns.getColor(e, a, 2) + u * columns.getColor(e, eb, 2);
+                float alpha = v * columns.getColor(e, a, 3) + u * columns.getColor(e, eb, 3);
                 rc.setColor(r, g, blue, alpha);
                 
-                rc.setVisible(infoA.v == 1);
+                rc.setVisible(columns.isVisible(e, a));
             }
 
             // Sync Health and Invincibility
             HealthComponent hc = obj.getComponent(HealthComponent.class);
             if (hc != null) {
-                hc.currentHealth = infoA.hp;
-                hc.maxHealth = infoA.maxHp;
-                hc.isInvincible = (infoA.inv == 1);
+                hc.currentHealth = columns.getHp(e, a);
+                hc.maxHealth = columns.getMaxHp(e, a);
+                hc.isInvincible = columns.isInvincible(e, a);
             }
         }
         
-        Iterator<Map.Entry<String, GameObject>> it = activeObjects.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, GameObject> entry = it.next();
-            if (!presentIds.contains(entry.getKey())) {
-                removeGameObject(entry.getValue());
-                it.remove();
+        for (int i = 0; i < activeCount; i++) {
+            int e = active[i];
+            if (seen[e] != stamp) {
+                removeGameObject(objects[e]);
+                objects[e] = null;
             }
         }
+        nextActive = active;
+        active = present;
+        activeCount = count;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.gameengine.graphics;
+
+import java.awt.Color;
+
+/**
+ * ARGB 整数到 java.awt.Color 的缓存
+ *
+ * 开放寻址哈希表，键直接存 int，不装箱；游戏中用到的颜色种类很少，
+ * 预热后每次查找都不分配对象。只应在单个线程中使用。
+ */
+public final class ColorCache {
+    private int[] keys;
+    private Color[] values;
+    private int size;
+
+    public ColorCache() {
+        this(64);
+    }
+
+    public ColorCache(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new Color[capacity];
+    }
+
+    /**
+     * 获取颜色对象，首次出现的颜色会被创建并缓存
+     */
+    public Color get(int argb) {
+        int mask = keys.length - 1;
+        int i = mix(argb) & mask;
+        while (values[i] != null) {
+            if (keys[i] == argb) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        Color color = new Color(argb, true);
+        keys[i] = argb;
+        values[i] = color;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+        return color;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        Color[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Color[oldValues.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
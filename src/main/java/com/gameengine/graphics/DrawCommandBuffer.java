@@ -0,0 +1,161 @@
+package com.gameengine.graphics;
+
+import java.util.Arrays;
+
+/**
+ * 紧凑的绘制命令缓冲
+ *
+ * 每条命令只占用基本类型数组中的几个槽位：操作码、ARGB 颜色、若干浮点参数，
+ * 文本命令额外记录字号和字符串引用。数组在帧间复用，容量够用后记录命令不再分配内存。
+ * 回放时按记录顺序把命令交给 {@link Visitor}。
+ */
+public final class DrawCommandBuffer {
+    public static final int RECT = 0;
+    public static final int CIRCLE = 1;
+    public static final int LINE = 2;
+    public static final int TEXT = 3;
+
+    /**
+     * 命令回放回调
+     */
+    public interface Visitor {
+        void rect(float x, float y, float width, float height, int argb);
+        void circle(float centerX, float centerY, float radius, int argb);
+        void line(float x1, float y1, float x2, float y2, int argb);
+        void text(String text, float x, float y, int fontSize, int argb);
+    }
+
+    private int[] opcodes;
+    private int[] colors;
+    private float[] params;
+    private int[] fontSizes;
+    private String[] texts;
+    private int commandCount;
+    private int paramCount;
+    private int textCount;
+
+    public DrawCommandBuffer() {
+        this(256);
+    }
+
+    public DrawCommandBuffer(int initialCommands) {
+        int capacity = Math.max(16, initialCommands);
+        this.opcodes = new int[capacity];
+        this.colors = new int[capacity];
+        this.params = new float[capacity * 4];
+        this.fontSizes = new int[16];
+        this.texts = new String[16];
+    }
+
+    /**
+     * 清空命令，保留已分配的容量
+     */
+    public void clear() {
+        Arrays.fill(texts, 0, textCount, null);
+        commandCount = 0;
+        paramCount = 0;
+        textCount = 0;
+    }
+
+    public void addRect(float x, float y, float width, float height, int argb) {
+        begin(RECT, argb, 4);
+        params[paramCount++] = x;
+        params[paramCount++] = y;
+        params[paramCount++] = width;
+        params[paramCount++] = height;
+    }
+
+    public void addCircle(float centerX, float centerY, float radius, int argb) {
+        begin(CIRCLE, argb, 3);
+        params[paramCount++] = centerX;
+        params[paramCount++] = centerY;
+        params[paramCount++] = radius;
+    }
+
+    public void addLine(float x1, float y1, float x2, float y2, int argb) {
+        begin(LINE, argb, 4);
+        params[paramCount++] = x1;
+        params[paramCount++] = y1;
+        params[paramCount++] = x2;
+        params[paramCount++] = y2;
+    }
+
+    public void addText(String text, float x, float y, int fontSize, int argb) {
+        begin(TEXT, argb, 2);
+        params[paramCount++] = x;
+        params[paramCount++] = y;
+        if (textCount == texts.length) {
+            texts = Arrays.copyOf(texts, textCount * 2);
+            fontSizes = Arrays.copyOf(fontSizes, textCount * 2);
+        }
+        texts[textCount] = text;
+        fontSizes[textCount] = fontSize;
+        textCount++;
+    }
+
+    /**
+     * 按记录顺序回放所有命令
+     */
+    public void replay(Visitor visitor) {
+        int p = 0;
+        int t = 0;
+        for (int i = 0; i < commandCount; i++) {
+            int argb = colors[i];
+            switch (opcodes[i]) {
+                case RECT:
+                    visitor.rect(params[p], params[p + 1], params[p + 2], params[p + 3], argb);
+                    p += 4;
+                    break;
+                case CIRCLE:
+                    visitor.circle(params[p], params[p + 1], params[p + 2], argb);
+                    p += 3;
+                    break;
+                case LINE:
+                    visitor.line(params[p], params[p + 1], params[p + 2], params[p + 3], argb);
+                    p += 4;
+                    break;
+                case TEXT:
+                    visitor.text(texts[t], params[p], params[p + 1], fontSizes[t], argb);
+                    p += 2;
+                    t++;
+                    break;
+                default:
+                    throw new IllegalStateException("未知的绘制命令: " + opcodes[i]);
+            }
+        }
+    }
+
+    /**
+     * 命令数量
+     */
+    public int size() {
+        return commandCount;
+    }
+
+    /**
+     * 把 [0, 1] 范围的浮点颜色打包为 ARGB 整数，超出范围的分量会被截断
+     */
+    public static int toArgb(float r, float g, float b, float a) {
+        return (channel(a) << 24) | (channel(r) << 16) | (channel(g) << 8) | channel(b);
+    }
+
+    private static int channel(float value) {
+        if (value <= 0f) return 0;
+        if (value >= 1f) return 255;
+        return (int) (value * 255f + 0.5f);
+    }
+
+    private void begin(int opcode, int argb, int paramSlots) {
+        if (commandCount == opcodes.length) {
+            int capacity = commandCount * 2;
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+        }
+        if (paramCount + paramSlots > params.length) {
+            params = Arrays.copyOf(params, params.length * 2);
+        }
+        opcodes[commandCount] = opcode;
+        colors[commandCount] = argb;
+        commandCount++;
+    }
+}
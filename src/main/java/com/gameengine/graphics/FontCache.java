@@ -0,0 +1,31 @@
+package com.gameengine.graphics;
+
+import java.awt.Font;
+
+/**
+ * 按字号缓存渲染器使用的字体（Arial 粗体）
+ */
+public final class FontCache {
+    public static final String FAMILY = "Arial";
+    public static final int STYLE = Font.BOLD;
+
+    private static final int MAX_CACHED_SIZE = 256;
+    private static final Font[] FONTS = new Font[MAX_CACHED_SIZE];
+
+    private FontCache() {}
+
+    /**
+     * 获取指定字号的字体，线程安全（重复创建的字体是等价的）
+     */
+    public static Font get(int size) {
+        if (size < 0 || size >= MAX_CACHED_SIZE) {
+            return new Font(FAMILY, STYLE, size);
+        }
+        Font font = FONTS[size];
+        if (font == null) {
+            font = new Font(FAMILY, STYLE, size);
+            FONTS[size] = font;
+        }
+        return font;
+    }
+}
@@ -0,0 +1,201 @@
+package com.gameengine.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * 单个字体的字形图集
+ *
+ * 字形以白色光栅化到一张 ARGB 图像中（颜色只用 alpha 通道），按行(shelf)排布。
+ * 构造时预先光栅化可打印 ASCII，其它字符首次使用时追加，图集满了高度翻倍。
+ * 字形位置、宽度和前进量都存放在基本类型数组中。只应在单个线程中使用。
+ */
+public final class GlyphAtlas {
+    private static final int PADDING = 1;
+    private static final int WIDTH = 512;
+
+    private final Font font;
+    private final int ascent;
+    private final int descent;
+    private final int cellHeight;
+
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private FontMetrics metrics;
+    private int penX;
+    private int penY;
+
+    // char -> 字形下标 + 1，0 表示尚未光栅化
+    private int[] glyphByChar;
+    private int[] glyphX;
+    private int[] glyphY;
+    private int[] glyphWidth;
+    private int[] glyphAdvance;
+    private int glyphCount;
+
+    public GlyphAtlas(Font font) {
+        this.font = font;
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = probe.createGraphics();
+        applyHints(g);
+        FontMetrics fm = g.getFontMetrics(font);
+        g.dispose();
+        this.ascent = fm.getAscent();
+        this.descent = fm.getDescent();
+        this.cellHeight = ascent + descent + PADDING * 2;
+
+        this.glyphByChar = new int[128];
+        this.glyphX = new int[128];
+        this.glyphY = new int[128];
+        this.glyphWidth = new int[128];
+        this.glyphAdvance = new int[128];
+
+        allocate(Math.max(64, cellHeight * 4));
+        for (char c = 32; c < 127; c++) {
+            glyph(c);
+        }
+    }
+
+    /**
+     * 获取字符的字形下标，必要时光栅化
+     */
+    public int glyph(char c) {
+        if (c >= glyphByChar.length) {
+            glyphByChar = Arrays.copyOf(glyphByChar, Math.max(c + 1, glyphByChar.length * 2));
+        }
+        int index = glyphByChar[c] - 1;
+        if (index < 0) {
+            index = rasterize(c);
+            glyphByChar[c] = index + 1;
+        }
+        return index;
+    }
+
+    /**
+     * 按字形前进量计算字符串宽度
+     */
+    public int measure(CharSequence text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += glyphAdvance[glyph(text.charAt(i))];
+        }
+        return width;
+    }
+
+    public int getGlyphX(int glyph) {
+        return glyphX[glyph];
+    }
+
+    public int getGlyphY(int glyph) {
+        return glyphY[glyph];
+    }
+
+    public int getGlyphWidth(int glyph) {
+        return glyphWidth[glyph];
+    }
+
+    public int getGlyphAdvance(int glyph) {
+        return glyphAdvance[glyph];
+    }
+
+    /**
+     * 字形格子的高度（含上下留白），格子顶部到基线的距离为 ascent + 1
+     */
+    public int getCellHeight() {
+        return cellHeight;
+    }
+
+    public int getAscent() {
+        return ascent;
+    }
+
+    public int getDescent() {
+        return descent;
+    }
+
+    /**
+     * 字形左侧的留白，字形格子的 x 减去留白才是笔位置
+     */
+    public int getPadding() {
+        return PADDING;
+    }
+
+    public Font getFont() {
+        return font;
+    }
+
+    /**
+     * 图集图像（追加字形后可能被替换为更大的图像）
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * 图集像素（ARGB，行宽为 {@link #getImageWidth()}）
+     */
+    public int[] getPixels() {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    public int getImageWidth() {
+        return image.getWidth();
+    }
+
+    private int rasterize(char c) {
+        int advance = metrics.charWidth(c);
+        int cellWidth = advance + PADDING * 2;
+        if (penX + cellWidth > WIDTH) {
+            penX = 0;
+            penY += cellHeight;
+        }
+        if (penY + cellHeight > image.getHeight()) {
+            allocate(image.getHeight() * 2);
+        }
+        if (glyphCount == glyphX.length) {
+            int capacity = glyphCount * 2;
+            glyphX = Arrays.copyOf(glyphX, capacity);
+            glyphY = Arrays.copyOf(glyphY, capacity);
+            glyphWidth = Arrays.copyOf(glyphWidth, capacity);
+            glyphAdvance = Arrays.copyOf(glyphAdvance, capacity);
+        }
+
+        int index = glyphCount++;
+        glyphX[index] = penX;
+        glyphY[index] = penY;
+        glyphWidth[index] = cellWidth;
+        glyphAdvance[index] = advance;
+        graphics.drawString(String.valueOf(c), penX + PADDING, penY + PADDING + ascent);
+        penX += cellWidth;
+        return index;
+    }
+
+    private void allocate(int height) {
+        BufferedImage next = new BufferedImage(WIDTH, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = next.createGraphics();
+        if (image != null) {
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(image, 0, 0, null);
+            graphics.dispose();
+        }
+        applyHints(g);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setFont(font);
+        g.setColor(Color.WHITE);
+        image = next;
+        graphics = g;
+        metrics = g.getFontMetrics();
+    }
+
+    private static void applyHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+    }
+}
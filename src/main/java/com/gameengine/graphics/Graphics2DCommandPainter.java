@@ -0,0 +1,59 @@
+package com.gameengine.graphics;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * 把绘制命令缓冲回放到 Graphics2D 上
+ *
+ * 只在颜色变化时才调用 setColor；文本通过字形图集排版并缓存，绘制时只做一次贴图。
+ * 每个绘制线程使用自己的实例。
+ */
+final class Graphics2DCommandPainter implements DrawCommandBuffer.Visitor {
+    private final ColorCache colors = new ColorCache();
+    private final TextLayoutCache text = new TextLayoutCache();
+    private Graphics2D target;
+    private int currentArgb;
+
+    /**
+     * 把一帧命令绘制到目标上
+     */
+    void paint(Graphics2D g, DrawCommandBuffer commands) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        target = g;
+        currentArgb = 0;
+        g.setColor(colors.get(0));
+        commands.replay(this);
+        target = null;
+    }
+
+    @Override
+    public void rect(float x, float y, float width, float height, int argb) {
+        useColor(argb);
+        target.fillRect((int) x, (int) y, (int) width, (int) height);
+    }
+
+    @Override
+    public void circle(float x, float y, float radius, int argb) {
+        useColor(argb);
+        target.fillOval((int) (x - radius), (int) (y - radius), (int) (radius * 2), (int) (radius * 2));
+    }
+
+    @Override
+    public void line(float x1, float y1, float x2, float y2, int argb) {
+        useColor(argb);
+        target.drawLine((int) x1, (int) y1, (int) x2, (int) y2);
+    }
+
+    @Override
+    public void text(String value, float x, float y, int fontSize, int argb) {
+        text.draw(target, value, x, y, fontSize, argb);
+    }
+
+    private void useColor(int argb) {
+        if (argb != currentArgb) {
+            target.setColor(colors.get(argb));
+            currentArgb = argb;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gameengine.graphics;
+
+/**
+ * 渲染后端
+ */
+public enum RenderBackend {
+    /** Swing 窗口，JPanel 被动重绘 */
+    SWING,
+    /** Swing 窗口，Canvas + BufferStrategy 主动渲染 */
+    SWING_ACTIVE,
+    /** OpenGL 渲染器（src/gpu/java 中的 GPURenderer），需要 LWJGL 和本地库 */
+    GPU,
+    /** 无窗口的软件光栅化 */
+    HEADLESS
+}
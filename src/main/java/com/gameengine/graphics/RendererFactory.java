@@ -0,0 +1,59 @@
+package com.gameengine.graphics;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * 按后端创建渲染器
+ */
+public final class RendererFactory {
+    /**
+     * GPU 后端实现类，位于 src/gpu/java，只有 lib/lwjgl 存在时才会被编译；
+     * 需提供 (int, int, String) 构造函数并实现 {@link Renderer}
+     */
+    public static final String GPU_RENDERER_CLASS = "com.gameengine.graphics.GPURenderer";
+    
+    private RendererFactory() {}
+    
+    public static Renderer createRenderer(RenderBackend backend, int width, int height, String title) {
+        switch (backend) {
+            case SWING:
+                return new SwingRenderer(width, height, title, false);
+            case SWING_ACTIVE:
+                return new SwingRenderer(width, height, title, true);
+            case HEADLESS:
+                return new SoftwareRenderer(width, height, title);
+            case GPU:
+                return createGpuRenderer(width, height, title);
+            default:
+                throw new IllegalArgumentException("不支持的渲染后端: " + backend);
+        }
+    }
+    
+    /**
+     * GPU 实现依赖 LWJGL 和本地库，不是每个构建都带，通过反射加载
+     */
+    private static Renderer createGpuRenderer(int width, int height, String title) {
+        Class<?> type;
+        try {
+            type = Class.forName(GPU_RENDERER_CLASS);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalStateException("GPU渲染器不可用，需要 LWJGL（lib/lwjgl）: " + e, e);
+        }
+        if (!Renderer.class.isAssignableFrom(type)) {
+            throw new IllegalStateException(GPU_RENDERER_CLASS + " 没有实现 Renderer");
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor(int.class, int.class, String.class);
+            return (Renderer) constructor.newInstance(width, height, title);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("GPU渲染器创建失败: " + cause, cause);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("GPU渲染器创建失败: " + e.getMessage(), e);
+        }
+    }
+}
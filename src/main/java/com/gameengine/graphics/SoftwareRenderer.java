@@ -0,0 +1,390 @@
+package com.gameengine.graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 软件光栅化渲染器
+ *
+ * 不创建窗口，绘制调用先记录到 {@link DrawCommandBuffer}，endFrame 时光栅化到
+ * int[] ARGB 帧缓冲。帧缓冲按行切成若干水平条带，每个条带独立回放全部命令并只写
+ * 自己的行，条带之间可以并行。文字使用 {@link GlyphAtlas}，缺失的字形在并行阶段
+ * 之前统一光栅化。可在 java.awt.headless=true 下运行，用于基准测试和离线渲染。
+ */
+public class SoftwareRenderer implements Renderer {
+    private final int width;
+    private final int height;
+    private final String title;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final DrawCommandBuffer commands;
+    private final GlyphAtlas[] atlases;
+    private final Band[] bands;
+    private final ExecutorService executor;
+    private final List<Future<?>> pending;
+    private final DrawCommandBuffer.Visitor glyphPreparer;
+    private int clearColor;
+    private long frameCount;
+    private long lastFrameNanos;
+    private boolean closed;
+
+    public SoftwareRenderer(int width, int height, String title) {
+        this(width, height, title, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param tiles 水平条带数量，1 表示在调用线程上单线程光栅化
+     */
+    public SoftwareRenderer(int width, int height, String title, int tiles) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.commands = new DrawCommandBuffer();
+        this.atlases = new GlyphAtlas[256];
+        this.clearColor = 0xFF000000;
+
+        int bandCount = Math.max(1, Math.min(tiles, height));
+        this.bands = new Band[bandCount];
+        for (int i = 0; i < bandCount; i++) {
+            bands[i] = new Band(height * i / bandCount, height * (i + 1) / bandCount);
+        }
+        if (bandCount > 1) {
+            this.executor = Executors.newFixedThreadPool(bandCount, r -> {
+                Thread thread = new Thread(r, "software-raster");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+        this.pending = new ArrayList<>(bandCount);
+        this.glyphPreparer = new DrawCommandBuffer.Visitor() {
+            @Override
+            public void rect(float x, float y, float w, float h, int argb) {}
+
+            @Override
+            public void circle(float cx, float cy, float radius, int argb) {}
+
+            @Override
+            public void line(float x1, float y1, float x2, float y2, int argb) {}
+
+            @Override
+            public void text(String text, float x, float y, int fontSize, int argb) {
+                atlas(fontSize).measure(text);
+            }
+        };
+    }
+
+    /**
+     * 开始渲染帧
+     */
+    @Override
+    public void beginFrame() {
+        commands.clear();
+    }
+
+    /**
+     * 结束渲染帧，把记录的命令光栅化到帧缓冲
+     */
+    @Override
+    public void endFrame() {
+        long start = System.nanoTime();
+
+        // 字形图集不是线程安全的，先在当前线程补齐本帧用到的字形
+        commands.replay(glyphPreparer);
+
+        if (executor == null) {
+            bands[0].run();
+        } else {
+            pending.clear();
+            for (Band band : bands) {
+                pending.add(executor.submit(band));
+            }
+            try {
+                for (Future<?> future : pending) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new RuntimeException("软件光栅化失败", e.getCause());
+            }
+        }
+
+        frameCount++;
+        lastFrameNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * 绘制矩形
+     */
+    @Override
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        commands.addRect(x, y, width, height, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+
+    /**
+     * 绘制圆形
+     */
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        commands.addCircle(x, y, radius, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+
+    /**
+     * 绘制线条
+     */
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        commands.addLine(x1, y1, x2, y2, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+
+    /**
+     * 绘制文本
+     */
+    @Override
+    public void drawString(String text, float x, float y, float r, float g, float b, float a, int fontSize) {
+        commands.addText(text, x, y, fontSize, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+
+    /**
+     * 检查是否应该关闭（调用 cleanup 之后返回 true）
+     */
+    @Override
+    public boolean shouldClose() {
+        return closed;
+    }
+
+    /**
+     * 处理事件（无窗口，什么也不做）
+     */
+    @Override
+    public void pollEvents() {
+    }
+
+    /**
+     * 清理资源
+     */
+    @Override
+    public void cleanup() {
+        closed = true;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 设置清屏颜色（ARGB）
+     */
+    public void setClearColor(int argb) {
+        this.clearColor = argb;
+    }
+
+    /**
+     * 帧缓冲像素（ARGB，行优先），与 {@link #getImage()} 共享存储
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * 以帧缓冲为存储的图像，可直接保存或绘制
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * 已光栅化的帧数
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 上一帧光栅化耗时（纳秒）
+     */
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+
+    public int getTileCount() {
+        return bands.length;
+    }
+
+    // Getters
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    private GlyphAtlas atlas(int fontSize) {
+        int slot = Math.max(0, Math.min(fontSize, atlases.length - 1));
+        GlyphAtlas atlas = atlases[slot];
+        if (atlas == null) {
+            atlas = new GlyphAtlas(FontCache.get(slot));
+            atlases[slot] = atlas;
+        }
+        return atlas;
+    }
+
+    /**
+     * 帧缓冲中的一个水平条带 [minY, maxY)，只写自己的行
+     */
+    private final class Band implements Runnable, DrawCommandBuffer.Visitor {
+        private final int minY;
+        private final int maxY;
+
+        Band(int minY, int maxY) {
+            this.minY = minY;
+            this.maxY = maxY;
+        }
+
+        @Override
+        public void run() {
+            Arrays.fill(pixels, minY * width, maxY * width, clearColor);
+            commands.replay(this);
+        }
+
+        @Override
+        public void rect(float x, float y, float w, float h, int argb) {
+            int x0 = Math.max(0, (int) x);
+            int x1 = Math.min(width, (int) x + (int) w);
+            int y0 = Math.max(minY, (int) y);
+            int y1 = Math.min(maxY, (int) y + (int) h);
+            for (int py = y0; py < y1; py++) {
+                span(py, x0, x1, argb);
+            }
+        }
+
+        @Override
+        public void circle(float cx, float cy, float radius, int argb) {
+            // 与 fillOval(cx - r, cy - r, 2r, 2r) 一致：取像素中心落在圆内的像素
+            int y0 = Math.max(minY, (int) Math.floor(cy - radius));
+            int y1 = Math.min(maxY, (int) Math.ceil(cy + radius));
+            float r2 = radius * radius;
+            for (int py = y0; py < y1; py++) {
+                float dy = py + 0.5f - cy;
+                float d = r2 - dy * dy;
+                if (d < 0) continue;
+                float half = (float) Math.sqrt(d);
+                int x0 = Math.max(0, (int) Math.ceil(cx - half - 0.5f));
+                int x1 = Math.min(width, (int) Math.floor(cx + half - 0.5f) + 1);
+                span(py, x0, x1, argb);
+            }
+        }
+
+        @Override
+        public void line(float fx1, float fy1, float fx2, float fy2, int argb) {
+            int x = (int) fx1;
+            int y = (int) fy1;
+            int x2 = (int) fx2;
+            int y2 = (int) fy2;
+            int dx = Math.abs(x2 - x);
+            int dy = -Math.abs(y2 - y);
+            int sx = x < x2 ? 1 : -1;
+            int sy = y < y2 ? 1 : -1;
+            int err = dx + dy;
+            while (true) {
+                if (y >= minY && y < maxY && x >= 0 && x < width) {
+                    blend(y * width + x, argb);
+                }
+                if (x == x2 && y == y2) break;
+                int e2 = 2 * err;
+                if (e2 >= dy) {
+                    err += dy;
+                    x += sx;
+                }
+                if (e2 <= dx) {
+                    err += dx;
+                    y += sy;
+                }
+            }
+        }
+
+        @Override
+        public void text(String text, float x, float y, int fontSize, int argb) {
+            GlyphAtlas atlas = atlas(fontSize);
+            int[] glyphPixels = atlas.getPixels();
+            int atlasWidth = atlas.getImageWidth();
+            int cellHeight = atlas.getCellHeight();
+            int padding = atlas.getPadding();
+            int top = (int) y - atlas.getAscent() - padding;
+            int gy0 = Math.max(minY, top);
+            int gy1 = Math.min(maxY, top + cellHeight);
+            if (gy0 >= gy1) return;
+
+            int colorAlpha = argb >>> 24;
+            int rgb = argb & 0x00FFFFFF;
+            int penX = (int) x;
+            for (int i = 0; i < text.length(); i++) {
+                int glyph = atlas.glyph(text.charAt(i));
+                int left = penX - padding;
+                int sx = atlas.getGlyphX(glyph);
+                int sy = atlas.getGlyphY(glyph);
+                int cellWidth = atlas.getGlyphWidth(glyph);
+                int gx0 = Math.max(0, left);
+                int gx1 = Math.min(width, left + cellWidth);
+                for (int py = gy0; py < gy1; py++) {
+                    int src = (sy + py - top) * atlasWidth + sx - left;
+                    int row = py * width;
+                    for (int px = gx0; px < gx1; px++) {
+                        int coverage = glyphPixels[src + px] >>> 24;
+                        if (coverage == 0) continue;
+                        int alpha = coverage * colorAlpha / 255;
+                        blend(row + px, (alpha << 24) | rgb);
+                    }
+                }
+                penX += atlas.getGlyphAdvance(glyph);
+            }
+        }
+
+        private void span(int py, int x0, int x1, int argb) {
+            if (x0 >= x1) return;
+            int row = py * width;
+            if ((argb >>> 24) == 0xFF) {
+                Arrays.fill(pixels, row + x0, row + x1, argb);
+            } else {
+                for (int px = x0; px < x1; px++) {
+                    blend(row + px, argb);
+                }
+            }
+        }
+
+        private void blend(int index, int argb) {
+            int sa = argb >>> 24;
+            if (sa == 0xFF) {
+                pixels[index] = argb;
+                return;
+            }
+            if (sa == 0) return;
+            int dst = pixels[index];
+            int da = dst >>> 24;
+            int inv = 255 - sa;
+            int r = (((argb >> 16) & 0xFF) * sa + ((dst >> 16) & 0xFF) * inv) / 255;
+            int g = (((argb >> 8) & 0xFF) * sa + ((dst >> 8) & 0xFF) * inv) / 255;
+            int b = ((argb & 0xFF) * sa + (dst & 0xFF) * inv) / 255;
+            int a = sa + da * inv / 255;
+            pixels[index] = (a << 24) | (r << 16) | (g << 8) | b;
+        }
+    }
+}
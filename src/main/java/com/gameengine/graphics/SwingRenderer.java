@@ -0,0 +1,353 @@
+package com.gameengine.graphics;
+
+import com.gameengine.input.InputManager;
+import com.gameengine.math.Vector2;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于 Swing 窗口的渲染器
+ *
+ * 绘制调用记录到三缓冲的命令缓冲中，endFrame 时发布一帧。默认由 JPanel 在 EDT 上
+ * 被动重绘；主动渲染模式下改用 Canvas + BufferStrategy，由独立的呈现线程按显示器
+ * 刷新率取最新一帧绘制并 show()，可选先画到 VolatileImage 再整体拷贝。
+ */
+public class SwingRenderer extends JFrame implements Renderer {
+    private int width;
+    private int height;
+    private String title;
+    private GamePanel gamePanel;
+    private InputManager inputManager;
+    private final TripleBuffer<DrawCommandBuffer> frames;
+    private final boolean activeRendering;
+    private GameCanvas gameCanvas;
+    private volatile boolean useVolatileBackBuffer;
+    
+    public SwingRenderer(int width, int height, String title) {
+        this(width, height, title, false);
+    }
+    
+    /**
+     * @param activeRendering 为 true 时使用 BufferStrategy 主动渲染
+     */
+    public SwingRenderer(int width, int height, String title, boolean activeRendering) {
+        this.width = width;
+        this.height = height;
+        this.title = title;
+        this.inputManager = InputManager.getInstance();
+        this.frames = new TripleBuffer<>(DrawCommandBuffer::new);
+        this.activeRendering = activeRendering;
+        
+        initialize();
+    }
+    
+    private void initialize() {
+        setTitle(title);
+        setSize(width, height);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setResizable(false);
+        
+        Component surface;
+        if (activeRendering) {
+            gameCanvas = new GameCanvas();
+            surface = gameCanvas;
+        } else {
+            gamePanel = new GamePanel();
+            surface = gamePanel;
+        }
+        add(surface);
+        
+        setupInput(surface);
+        
+        setVisible(true);
+        
+        if (gameCanvas != null) {
+            gameCanvas.start();
+        }
+    }
+    
+    private void setupInput(Component surface) {
+        // 键盘输入
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                inputManager.onKeyPressed(e.getKeyCode());
+            }
+            
+            @Override
+            public void keyReleased(KeyEvent e) {
+                inputManager.onKeyReleased(e.getKeyCode());
+            }
+        });
+        
+        // 鼠标输入
+        MouseAdapter mouseButtons = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                inputManager.onMousePressed(e.getButton());
+            }
+            
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                inputManager.onMouseReleased(e.getButton());
+            }
+        };
+        MouseAdapter mouseMotion = new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                inputManager.onMouseMoved(e.getX(), e.getY());
+            }
+        };
+        addMouseListener(mouseButtons);
+        addMouseMotionListener(mouseMotion);
+        
+        // Canvas 是重量级组件，鼠标事件不会再传给窗口
+        if (surface instanceof Canvas) {
+            surface.setFocusable(false);
+            surface.addMouseListener(mouseButtons);
+            surface.addMouseMotionListener(mouseMotion);
+        }
+        
+        setFocusable(true);
+        requestFocus();
+    }
+    
+    /**
+     * 开始渲染帧
+     */
+    @Override
+    public void beginFrame() {
+        frames.getWriteBuffer().clear();
+    }
+    
+    /**
+     * 结束渲染帧
+     */
+    @Override
+    public void endFrame() {
+        frames.publish();
+        if (gamePanel != null) {
+            gamePanel.repaint();
+        }
+    }
+    
+    /**
+     * 绘制矩形
+     */
+    @Override
+    public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        frames.getWriteBuffer().addRect(x, y, width, height, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+    
+    /**
+     * 绘制圆形
+     */
+    @Override
+    public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
+        frames.getWriteBuffer().addCircle(x, y, radius, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+    
+    /**
+     * 绘制线条
+     */
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+        frames.getWriteBuffer().addLine(x1, y1, x2, y2, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+
+    /**
+     * 绘制文本
+     */
+    @Override
+    public void drawString(String text, float x, float y, float r, float g, float b, float a, int fontSize) {
+        frames.getWriteBuffer().addText(text, x, y, fontSize, DrawCommandBuffer.toArgb(r, g, b, a));
+    }
+    
+    /**
+     * 检查窗口是否应该关闭
+     */
+    @Override
+    public boolean shouldClose() {
+        return !isVisible();
+    }
+    
+    /**
+     * 处理事件
+     */
+    @Override
+    public void pollEvents() {
+        // Swing自动处理事件
+    }
+    
+    /**
+     * 清理资源
+     */
+    @Override
+    public void cleanup() {
+        if (gameCanvas != null) {
+            gameCanvas.stop();
+        }
+        dispose();
+    }
+    
+    /**
+     * 是否处于主动渲染模式
+     */
+    public boolean isActiveRendering() {
+        return activeRendering;
+    }
+    
+    /**
+     * 主动渲染模式下是否先绘制到 VolatileImage 后备缓冲
+     */
+    public void setUseVolatileBackBuffer(boolean useVolatileBackBuffer) {
+        this.useVolatileBackBuffer = useVolatileBackBuffer;
+    }
+    
+    // Getters
+    @Override
+    public int getWidth() {
+        return width;
+    }
+    
+    @Override
+    public int getHeight() {
+        return height;
+    }
+    
+    @Override
+    public String getTitle() {
+        return title;
+    }
+    
+    /**
+     * 游戏面板类（被动渲染）
+     *
+     * EDT 重绘时取最新发布的一帧回放，与游戏循环线程各自持有不同的命令缓冲。
+     */
+    private class GamePanel extends JPanel {
+        private final Graphics2DCommandPainter painter = new Graphics2DCommandPainter();
+        
+        public GamePanel() {
+            setPreferredSize(new Dimension(width, height));
+            setBackground(Color.BLACK);
+        }
+        
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            painter.paint((Graphics2D) g, frames.acquire());
+        }
+    }
+    
+    /**
+     * 游戏画布类（主动渲染）
+     *
+     * 呈现线程按刷新周期检查是否有新帧，有则绘制到 BufferStrategy 并 show()。
+     * 缓冲内容丢失时重画当前帧。
+     */
+    private class GameCanvas extends Canvas implements Runnable {
+        private static final long serialVersionUID = 1L;
+        private final Graphics2DCommandPainter painter = new Graphics2DCommandPainter();
+        private volatile boolean presenting;
+        private Thread presenter;
+        private BufferStrategy strategy;
+        private VolatileImage backBuffer;
+        
+        public GameCanvas() {
+            setPreferredSize(new Dimension(width, height));
+            setBackground(Color.BLACK);
+            setIgnoreRepaint(true);
+        }
+        
+        void start() {
+            createBufferStrategy(2);
+            strategy = getBufferStrategy();
+            presenting = true;
+            presenter = new Thread(this, "render-present");
+            presenter.setDaemon(true);
+            presenter.start();
+        }
+        
+        void stop() {
+            presenting = false;
+        }
+        
+        @Override
+        public void run() {
+            long period = refreshPeriodNanos();
+            long next = System.nanoTime();
+            while (presenting && isDisplayable()) {
+                if (frames.hasNewFrame()) {
+                    present(frames.acquire());
+                }
+                next += period;
+                long now = System.nanoTime();
+                if (next < now) {
+                    next = now;
+                } else {
+                    LockSupport.parkNanos(next - now);
+                }
+            }
+        }
+        
+        private void present(DrawCommandBuffer commands) {
+            do {
+                do {
+                    Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        if (useVolatileBackBuffer) {
+                            g.drawImage(renderToBackBuffer(commands), 0, 0, null);
+                        } else {
+                            g.setColor(Color.BLACK);
+                            g.fillRect(0, 0, getWidth(), getHeight());
+                            painter.paint(g, commands);
+                        }
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+        }
+        
+        private VolatileImage renderToBackBuffer(DrawCommandBuffer commands) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            do {
+                if (backBuffer == null || backBuffer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    backBuffer = createVolatileImage(getWidth(), getHeight());
+                }
+                Graphics2D g = backBuffer.createGraphics();
+                try {
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, backBuffer.getWidth(), backBuffer.getHeight());
+                    painter.paint(g, commands);
+                } finally {
+                    g.dispose();
+                }
+            } while (backBuffer.contentsLost());
+            return backBuffer;
+        }
+        
+        private long refreshPeriodNanos() {
+            int refreshRate = DisplayMode.REFRESH_RATE_UNKNOWN;
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            if (gc != null) {
+                refreshRate = gc.getDevice().getDisplayMode().getRefreshRate();
+            }
+            if (refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN || refreshRate <= 0) {
+                refreshRate = 60;
+            }
+            return 1_000_000_000L / refreshRate;
+        }
+    }
+}
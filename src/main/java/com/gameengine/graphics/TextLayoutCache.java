@@ -0,0 +1,164 @@
+package com.gameengine.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 排版好的文本缓存
+ *
+ * 每种字号一张 {@link GlyphAtlas}；一段文本第一次出现时从图集拼出字形并着色，
+ * 生成一张小图像，之后按 文本 + 字号 + 颜色 命中缓存，每帧只需一次 drawImage。
+ * 缓存按最近最少使用淘汰。查找时复用同一个探针键，命中不分配对象。只应在单个线程中使用。
+ */
+public final class TextLayoutCache {
+    private static final int MAX_FONT_SIZE = 256;
+
+    private final int capacity;
+    private final GlyphAtlas[] atlases;
+    private final LinkedHashMap<Key, Layout> layouts;
+    private final Key probe;
+
+    /**
+     * 一段排版好的文本
+     */
+    public static final class Layout {
+        private final BufferedImage image;
+        private final int originX;
+        private final int originY;
+
+        Layout(BufferedImage image, int originX, int originY) {
+            this.image = image;
+            this.originX = originX;
+            this.originY = originY;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * 图像中笔起点（基线左端）的位置
+         */
+        public int getOriginX() {
+            return originX;
+        }
+
+        public int getOriginY() {
+            return originY;
+        }
+    }
+
+    public TextLayoutCache() {
+        this(256);
+    }
+
+    public TextLayoutCache(int capacity) {
+        this.capacity = capacity;
+        this.atlases = new GlyphAtlas[MAX_FONT_SIZE];
+        this.layouts = new LinkedHashMap<Key, Layout>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Layout> eldest) {
+                return size() > TextLayoutCache.this.capacity;
+            }
+        };
+        this.probe = new Key();
+    }
+
+    /**
+     * 在 (x, y) 处绘制文本，y 为基线，与 Graphics.drawString 一致
+     */
+    public void draw(Graphics2D g, String text, float x, float y, int fontSize, int argb) {
+        if (text.isEmpty()) return;
+        Layout layout = get(text, fontSize, argb);
+        g.drawImage(layout.image, (int) x - layout.originX, (int) y - layout.originY, null);
+    }
+
+    /**
+     * 获取文本的排版结果，未命中时生成并缓存
+     */
+    public Layout get(String text, int fontSize, int argb) {
+        probe.set(text, fontSize, argb);
+        Layout layout = layouts.get(probe);
+        if (layout == null) {
+            layout = layout(text, fontSize, argb);
+            Key key = new Key();
+            key.set(text, fontSize, argb);
+            layouts.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * 获取指定字号的字形图集
+     */
+    public GlyphAtlas atlas(int fontSize) {
+        int slot = Math.max(0, Math.min(fontSize, MAX_FONT_SIZE - 1));
+        GlyphAtlas atlas = atlases[slot];
+        if (atlas == null) {
+            atlas = new GlyphAtlas(FontCache.get(slot));
+            atlases[slot] = atlas;
+        }
+        return atlas;
+    }
+
+    public int size() {
+        return layouts.size();
+    }
+
+    private Layout layout(String text, int fontSize, int argb) {
+        GlyphAtlas atlas = atlas(fontSize);
+        int padding = atlas.getPadding();
+        // measure 会先光栅化缺失的字形，之后图集图像不再变化
+        int width = atlas.measure(text) + padding * 2;
+        int height = atlas.getCellHeight();
+        BufferedImage glyphs = atlas.getImage();
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = image.createGraphics();
+        int penX = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int glyph = atlas.glyph(text.charAt(i));
+            int sx = atlas.getGlyphX(glyph);
+            int sy = atlas.getGlyphY(glyph);
+            int gw = atlas.getGlyphWidth(glyph);
+            g.drawImage(glyphs, penX, 0, penX + gw, height, sx, sy, sx + gw, sy + height, null);
+            penX += atlas.getGlyphAdvance(glyph);
+        }
+        // 用文本颜色替换白色字形，保留字形的 alpha
+        g.setComposite(AlphaComposite.SrcIn);
+        g.setColor(new Color(argb, true));
+        g.fillRect(0, 0, image.getWidth(), height);
+        g.dispose();
+        return new Layout(image, padding, padding + atlas.getAscent());
+    }
+
+    private static final class Key {
+        private String text;
+        private int fontSize;
+        private int argb;
+        private int hash;
+
+        void set(String text, int fontSize, int argb) {
+            this.text = text;
+            this.fontSize = fontSize;
+            this.argb = argb;
+            this.hash = (text.hashCode() * 31 + fontSize) * 31 + argb;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return fontSize == other.fontSize && argb == other.argb && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
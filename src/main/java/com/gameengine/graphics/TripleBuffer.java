@@ -0,0 +1,62 @@
+package com.gameengine.graphics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 无锁三缓冲，用于一个生产线程与一个消费线程之间交换整帧数据
+ *
+ * 写入方独占 back 缓冲，读取方独占 front 缓冲，中间缓冲保存最近一次发布的帧。
+ * publish 与 acquire 都只是一次原子交换，双方互不等待；读取方较慢时会直接跳到最新帧，
+ * 写入方较慢时读取方重复使用上一帧。
+ */
+public final class TripleBuffer<T> {
+    // middle 的低两位是缓冲下标，DIRTY 位表示中间缓冲是尚未被读取的新帧
+    private static final int INDEX_MASK = 3;
+    private static final int DIRTY = 4;
+
+    private final Object[] buffers;
+    private final AtomicInteger middle;
+    private int back;
+    private int front;
+
+    public TripleBuffer(Supplier<? extends T> factory) {
+        this.buffers = new Object[] { factory.get(), factory.get(), factory.get() };
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * 写入方当前可以填充的缓冲（仅限写入线程调用）
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * 发布写好的缓冲，并换来一个新的写缓冲（仅限写入线程调用）
+     */
+    public void publish() {
+        back = middle.getAndSet(back | DIRTY) & INDEX_MASK;
+    }
+
+    /**
+     * 获取最新发布的帧；没有新帧时返回上一次获取的缓冲（仅限读取线程调用）
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & DIRTY) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+
+    /**
+     * 是否有读取方尚未获取的新帧
+     */
+    public boolean hasNewFrame() {
+        return (middle.get() & DIRTY) != 0;
+    }
+}
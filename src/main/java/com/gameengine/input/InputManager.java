@@ -8,6 +8,8 @@ import java.util.Set;
 
 /**
  * 输入管理器，处理键盘和鼠标输入
+ *
+ * 事件由 Swing 事件线程写入，游戏循环在模拟线程读取，所有方法都以实例为锁同步。
  */
 public class InputManager {
     private static InputManager instance;
@@ -27,7 +29,7 @@ public class InputManager {
         mouseButtonsJustPressed = new boolean[4];
     }
     
-    public static InputManager getInstance() {
+    public static synchronized InputManager getInstance() {
         if (instance == null) {
             instance = new InputManager();
         }
@@ -37,7 +39,7 @@ public class InputManager {
     /**
      * 更新输入状态
      */
-    public void update() {
+    public synchronized void update() {
         justPressedKeys.clear();
         for (int i = 0; i < mouseButtonsJustPressed.length; i++) {
             mouseButtonsJustPressed[i] = false;
@@ -47,7 +49,7 @@ public class InputManager {
     /**
      * 处理键盘按下事件
      */
-    public void onKeyPressed(int keyCode) {
+    public synchronized void onKeyPressed(int keyCode) {
         if (!pressedKeys.contains(keyCode)) {
             justPressedKeys.add(keyCode);
         }
@@ -58,7 +60,7 @@ public class InputManager {
     /**
      * 处理键盘释放事件
      */
-    public void onKeyReleased(int keyCode) {
+    public synchronized void onKeyReleased(int keyCode) {
         pressedKeys.remove(keyCode);
         keyStates.put(keyCode, false);
     }
@@ -66,7 +68,7 @@ public class InputManager {
     /**
      * 处理鼠标移动事件
      */
-    public void onMouseMoved(float x, float y) {
+    public synchronized void onMouseMoved(float x, float y) {
         mousePosition.x = x;
         mousePosition.y = y;
     }
@@ -74,7 +76,7 @@ public class InputManager {
     /**
      * 处理鼠标按下事件
      */
-    public void onMousePressed(int button) {
+    public synchronized void onMousePressed(int button) {
         if (button >= 0 && button < mouseButtons.length) {
             if (!mouseButtons[button]) {
                 mouseButtonsJustPressed[button] = true;
@@ -86,7 +88,7 @@ public class InputManager {
     /**
      * 处理鼠标释放事件
      */
-    public void onMouseReleased(int button) {
+    public synchronized void onMouseReleased(int button) {
         if (button >= 0 && button < mouseButtons.length) {
             mouseButtons[button] = false;
         }
@@ -95,28 +97,28 @@ public class InputManager {
     /**
      * 检查按键是否被按下
      */
-    public boolean isKeyPressed(int keyCode) {
+    public synchronized boolean isKeyPressed(int keyCode) {
         return pressedKeys.contains(keyCode);
     }
     
     /**
      * 检查按键是否刚刚被按下（只在这一帧为true）
      */
-    public boolean isKeyJustPressed(int keyCode) {
+    public synchronized boolean isKeyJustPressed(int keyCode) {
         return justPressedKeys.contains(keyCode);
     }
 
     /**
      * 获取当前帧刚按下的所有按键的快照
      */
-    public Set<Integer> getJustPressedKeysSnapshot() {
+    public synchronized Set<Integer> getJustPressedKeysSnapshot() {
         return new HashSet<>(justPressedKeys);
     }
     
     /**
      * 检查鼠标按键是否被按下
      */
-    public boolean isMouseButtonPressed(int button) {
+    public synchronized boolean isMouseButtonPressed(int button) {
         if (button >= 0 && button < mouseButtons.length) {
             return mouseButtons[button];
         }
@@ -126,7 +128,7 @@ public class InputManager {
     /**
      * 检查鼠标按键是否刚刚被按下
      */
-    public boolean isMouseButtonJustPressed(int button) {
+    public synchronized boolean isMouseButtonJustPressed(int button) {
         if (button >= 0 && button < mouseButtons.length) {
             return mouseButtonsJustPressed[button];
         }
@@ -136,21 +138,21 @@ public class InputManager {
     /**
      * 获取鼠标位置
      */
-    public Vector2 getMousePosition() {
+    public synchronized Vector2 getMousePosition() {
         return new Vector2(mousePosition);
     }
     
     /**
      * 获取鼠标X坐标
      */
-    public float getMouseX() {
+    public synchronized float getMouseX() {
         return mousePosition.x;
     }
     
     /**
      * 获取鼠标Y坐标
      */
-    public float getMouseY() {
+    public synchronized float getMouseY() {
         return mousePosition.y;
     }
 }
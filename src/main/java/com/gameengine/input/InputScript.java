@@ -0,0 +1,177 @@
+package com.gameengine.input;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 脚本化输入，按逻辑帧序号把预先编排的事件送入 {@link InputManager}
+ *
+ * 用于无窗口运行时模拟玩家操作。事件按帧序号排序，同一帧内保持添加顺序。
+ */
+public class InputScript {
+    private static final int KEY_DOWN = 0;
+    private static final int KEY_UP = 1;
+    private static final int MOUSE_MOVE = 2;
+    private static final int MOUSE_DOWN = 3;
+    private static final int MOUSE_UP = 4;
+
+    private long[] ticks;
+    private int[] types;
+    private int[] codes;
+    private float[] xs;
+    private float[] ys;
+    private int count;
+    private int cursor;
+
+    public InputScript() {
+        this.ticks = new long[64];
+        this.types = new int[64];
+        this.codes = new int[64];
+        this.xs = new float[64];
+        this.ys = new float[64];
+    }
+
+    public InputScript keyDown(long tick, int keyCode) {
+        return add(tick, KEY_DOWN, keyCode, 0, 0);
+    }
+
+    public InputScript keyUp(long tick, int keyCode) {
+        return add(tick, KEY_UP, keyCode, 0, 0);
+    }
+
+    /**
+     * 在 tick 按下、tick + 1 松开
+     */
+    public InputScript tap(long tick, int keyCode) {
+        keyDown(tick, keyCode);
+        return keyUp(tick + 1, keyCode);
+    }
+
+    public InputScript mouseMove(long tick, float x, float y) {
+        return add(tick, MOUSE_MOVE, 0, x, y);
+    }
+
+    public InputScript mouseDown(long tick, int button) {
+        return add(tick, MOUSE_DOWN, button, 0, 0);
+    }
+
+    public InputScript mouseUp(long tick, int button) {
+        return add(tick, MOUSE_UP, button, 0, 0);
+    }
+
+    /**
+     * 在 (x, y) 处点击鼠标按键：tick 移动并按下，tick + 1 松开
+     */
+    public InputScript click(long tick, int button, float x, float y) {
+        mouseMove(tick, x, y);
+        mouseDown(tick, button);
+        return mouseUp(tick + 1, button);
+    }
+
+    /**
+     * 把帧序号不大于 tick 的未发送事件送入输入管理器
+     */
+    public void apply(long tick, InputManager input) {
+        while (cursor < count && ticks[cursor] <= tick) {
+            int i = cursor++;
+            switch (types[i]) {
+                case KEY_DOWN:
+                    input.onKeyPressed(codes[i]);
+                    break;
+                case KEY_UP:
+                    input.onKeyReleased(codes[i]);
+                    break;
+                case MOUSE_MOVE:
+                    input.onMouseMoved(xs[i], ys[i]);
+                    break;
+                case MOUSE_DOWN:
+                    input.onMousePressed(codes[i]);
+                    break;
+                case MOUSE_UP:
+                    input.onMouseReleased(codes[i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 回到脚本开头
+     */
+    public void rewind() {
+        cursor = 0;
+    }
+
+    /**
+     * 是否所有事件都已发送
+     */
+    public boolean isFinished() {
+        return cursor >= count;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 生成随机操作脚本：WASD 随机按住一段时间，随机位置发射火球和炸弹，定期按空格重开
+     * @param seed 随机种子，相同种子生成相同脚本
+     * @param totalTicks 脚本覆盖的帧数
+     */
+    public static InputScript random(long seed, long totalTicks, int width, int height) {
+        Random random = new Random(seed);
+        InputScript script = new InputScript();
+        int[] moveKeys = { 87, 65, 83, 68 }; // W A S D
+        long tick = 0;
+        while (tick < totalTicks) {
+            int key = moveKeys[random.nextInt(moveKeys.length)];
+            long hold = 10 + random.nextInt(50);
+            script.keyDown(tick, key);
+            script.keyUp(tick + hold, key);
+            if (random.nextInt(3) == 0) {
+                script.click(tick + random.nextInt((int) hold), 1, random.nextFloat() * width, random.nextFloat() * height);
+            }
+            if (random.nextInt(8) == 0) {
+                script.click(tick + random.nextInt((int) hold), 3, random.nextFloat() * width, random.nextFloat() * height);
+            }
+            if (random.nextInt(20) == 0) {
+                script.tap(tick + hold, 32); // Space
+            }
+            tick += hold + 1;
+        }
+        return script;
+    }
+
+    private InputScript add(long tick, int type, int code, float x, float y) {
+        if (count == ticks.length) {
+            int capacity = count * 2;
+            ticks = Arrays.copyOf(ticks, capacity);
+            types = Arrays.copyOf(types, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        // 插入到最后一个帧序号不大于 tick 的事件之后
+        int at = count;
+        while (at > 0 && ticks[at - 1] > tick) {
+            at--;
+        }
+        if (at < cursor) {
+            at = cursor;
+        }
+        int moved = count - at;
+        System.arraycopy(ticks, at, ticks, at + 1, moved);
+        System.arraycopy(types, at, types, at + 1, moved);
+        System.arraycopy(codes, at, codes, at + 1, moved);
+        System.arraycopy(xs, at, xs, at + 1, moved);
+        System.arraycopy(ys, at, ys, at + 1, moved);
+        ticks[at] = tick;
+        types[at] = type;
+        codes[at] = code;
+        xs[at] = x;
+        ys[at] = y;
+        count++;
+        return this;
+    }
+}
@@ -0,0 +1,369 @@
+package com.gameengine.recording;
+
+import com.gameengine.math.Vector2;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二进制录制解码，格式见 {@link BinaryRecordingEncoder}
+ *
+ * 增量帧在上一帧的基础上还原成完整的关键帧；未变化的实体直接共用上一帧的 EntityInfo，
+ * 因此返回的关键帧及其实体都应视为只读。
+ */
+public class BinaryRecordingDecoder {
+    private final ByteBuffer in;
+    private final List<String> strings;
+    private final Map<Long, String> entityIds;
+    private int width;
+    private int height;
+    private int decimals;
+    private float scale;
+    private Keyframe current;
+    private long lastRecordOffset;
+    private boolean lastFull;
+
+    public BinaryRecordingDecoder(ByteBuffer in) throws IOException {
+        this.in = in;
+        this.strings = new ArrayList<>();
+        this.entityIds = new HashMap<>();
+        readHeader();
+    }
+
+    /**
+     * 从文件中间的一个完整关键帧开始解码
+     * @param segment 从完整关键帧记录开始的数据
+     * @param strings 索引中的完整字符串表
+     */
+    BinaryRecordingDecoder(ByteBuffer segment, int decimals, List<String> strings) {
+        this.in = segment;
+        this.strings = new ArrayList<>(strings);
+        this.entityIds = new HashMap<>();
+        this.decimals = decimals;
+        this.scale = (float) Math.pow(10, decimals);
+    }
+
+    /**
+     * 判断数据是否以二进制录制的文件头开始
+     */
+    public static boolean isBinary(byte[] head, int length) {
+        if (length < BinaryRecordingEncoder.MAGIC.length) return false;
+        for (int i = 0; i < BinaryRecordingEncoder.MAGIC.length; i++) {
+            if (head[i] != BinaryRecordingEncoder.MAGIC[i]) return false;
+        }
+        return true;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    int getDecimals() {
+        return decimals;
+    }
+
+    List<String> getStrings() {
+        return strings;
+    }
+
+    /**
+     * 上一次返回的关键帧记录在数据中的位置
+     */
+    long getLastRecordOffset() {
+        return lastRecordOffset;
+    }
+
+    /**
+     * 上一次返回的是否为完整关键帧
+     */
+    boolean isLastFull() {
+        return lastFull;
+    }
+
+    /**
+     * 读取下一个关键帧，跳过其他记录；到达末尾或索引记录时返回 null
+     * 录制未正常结束时最后一条记录可能不完整，直接丢弃
+     */
+    public Keyframe nextKeyframe() throws IOException {
+        try {
+            while (in.hasRemaining()) {
+                int start = in.position();
+                int tag = in.get() & 0xFF;
+                switch (tag) {
+                    case BinaryRecordingEncoder.TAG_STRING:
+                        readStringRecord();
+                        break;
+                    case BinaryRecordingEncoder.TAG_INPUT:
+                        readVarint();
+                        long keys = readVarint();
+                        for (long i = 0; i < keys; i++) readVarint();
+                        break;
+                    case BinaryRecordingEncoder.TAG_KEYFRAME:
+                        current = readKeyframe();
+                        lastRecordOffset = start;
+                        lastFull = true;
+                        return current;
+                    case BinaryRecordingEncoder.TAG_DELTA:
+                        if (current == null) {
+                            throw new IOException("增量帧之前没有完整关键帧");
+                        }
+                        current = readDelta(current);
+                        lastRecordOffset = start;
+                        lastFull = false;
+                        return current;
+                    case BinaryRecordingEncoder.TAG_INDEX:
+                        in.position(in.limit());
+                        return null;
+                    default:
+                        throw new IOException("未知的录制记录类型: " + tag);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            in.position(in.limit());
+        }
+        return null;
+    }
+
+    /**
+     * 读取剩余的全部关键帧
+     */
+    public List<Keyframe> readAll() throws IOException {
+        List<Keyframe> keyframes = new ArrayList<>();
+        Keyframe kf;
+        while ((kf = nextKeyframe()) != null) {
+            keyframes.add(kf);
+        }
+        return keyframes;
+    }
+
+    /**
+     * 解析索引记录
+     * @param record 从 INDEX 标签开始的数据
+     * @param indexOffset 索引记录在文件中的偏移，也是最后一段数据的结束位置
+     */
+    static RecordingIndex readIndex(ByteBuffer record, long indexOffset) throws IOException {
+        BinaryRecordingDecoder reader = new BinaryRecordingDecoder(record, 0, new ArrayList<String>());
+        try {
+            if (record.get() != BinaryRecordingEncoder.TAG_INDEX) {
+                throw new IOException("录制索引已损坏");
+            }
+            int stringCount = (int) reader.readVarint();
+            List<String> strings = new ArrayList<>(stringCount);
+            for (int i = 0; i < stringCount; i++) {
+                strings.add(reader.readString());
+            }
+            double endTime = reader.readVarint() / 1000.0;
+            int count = (int) reader.readVarint();
+            double[] times = new double[count];
+            long[] offsets = new long[count];
+            long time = 0;
+            long offset = 0;
+            for (int i = 0; i < count; i++) {
+                time += reader.readVarint();
+                offset += reader.readVarint();
+                times[i] = time / 1000.0;
+                offsets[i] = offset;
+            }
+            return new RecordingIndex(times, offsets, count, endTime, indexOffset, strings);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("录制索引不完整");
+        }
+    }
+
+    private void readHeader() throws IOException {
+        byte[] magic = new byte[BinaryRecordingEncoder.MAGIC.length];
+        if (in.remaining() < magic.length + 2) {
+            throw new IOException("录制文件头不完整");
+        }
+        in.get(magic);
+        if (!isBinary(magic, magic.length)) {
+            throw new IOException("不是二进制录制文件");
+        }
+        int version = in.get() & 0xFF;
+        if (version != BinaryRecordingEncoder.VERSION) {
+            throw new IOException("不支持的录制版本: " + version);
+        }
+        this.decimals = in.get() & 0xFF;
+        this.scale = (float) Math.pow(10, decimals);
+        this.width = (int) readVarint();
+        this.height = (int) readVarint();
+    }
+
+    private void readStringRecord() {
+        int index = (int) readVarint();
+        String value = readString();
+        if (index < strings.size()) {
+            strings.set(index, value);
+        } else {
+            while (strings.size() < index) strings.add(null);
+            strings.add(value);
+        }
+    }
+
+    private Keyframe readKeyframe() throws IOException {
+        Keyframe kf = new Keyframe();
+        kf.t = readVarint() / 1000.0;
+        if (in.get() != 0) {
+            kf.global = readGlobal();
+        }
+
+        long count = readVarint();
+        for (long i = 0; i < count; i++) {
+            String id = defineEntity(readVarint(), readVarint());
+            Keyframe.EntityInfo ei = readEntity(id);
+            kf.entities.put(ei.id, ei);
+        }
+        // 与编码端一致，完整帧中不存在的实体编号不再使用
+        entityIds.values().retainAll(kf.entities.keySet());
+        return kf;
+    }
+
+    private Keyframe readDelta(Keyframe base) throws IOException {
+        Keyframe kf = new Keyframe();
+        kf.t = readVarint() / 1000.0;
+        kf.global = in.get() != 0 ? readGlobal() : base.global;
+        kf.entities.putAll(base.entities);
+
+        long changed = readVarint();
+        for (long i = 0; i < changed; i++) {
+            long number = readVarint();
+            int mask = (int) readVarint();
+            String id = (mask & KeyframeDelta.NEW) != 0 ? defineEntity(number, readVarint()) : entityId(number);
+            if ((mask & KeyframeDelta.FULL) != 0) {
+                kf.entities.put(id, readEntity(id));
+                continue;
+            }
+            Keyframe.EntityInfo prev = base.entities.get(id);
+            if (prev == null) {
+                throw new IOException("增量帧引用了不存在的实体: " + id);
+            }
+            Keyframe.EntityInfo ei = prev.copy();
+            if ((mask & KeyframeDelta.X) != 0) ei.pos.x = readFixed();
+            if ((mask & KeyframeDelta.Y) != 0) ei.pos.y = readFixed();
+            if ((mask & KeyframeDelta.W) != 0) ei.w = readFixed();
+            if ((mask & KeyframeDelta.H) != 0) ei.h = readFixed();
+            if ((mask & KeyframeDelta.COLOR) != 0) readColor(ei);
+            if ((mask & KeyframeDelta.HP) != 0) ei.hp = readFixed();
+            if ((mask & KeyframeDelta.MAX_HP) != 0) ei.maxHp = readFixed();
+            if ((mask & KeyframeDelta.FLAGS) != 0) {
+                int flags = in.get() & 0xFF;
+                ei.v = (flags & BinaryRecordingEncoder.FLAG_HIDDEN) != 0 ? 0 : 1;
+                ei.inv = (flags & BinaryRecordingEncoder.FLAG_INVINCIBLE) != 0 ? 1 : 0;
+            }
+            kf.entities.put(id, ei);
+        }
+
+        long removed = readVarint();
+        for (long i = 0; i < removed; i++) {
+            long number = readVarint();
+            kf.entities.remove(entityId(number));
+            entityIds.remove(number);
+        }
+        return kf;
+    }
+
+    private Keyframe.GlobalInfo readGlobal() {
+        Keyframe.GlobalInfo global = new Keyframe.GlobalInfo();
+        global.score = (int) readZigZag();
+        global.fcd = readFixed();
+        global.bcd = readFixed();
+        global.over = in.get() != 0;
+        return global;
+    }
+
+    /**
+     * 记录实体编号对应的名称，返回实体的字符串 id
+     */
+    private String defineEntity(long number, long nameIndex) throws IOException {
+        String id = entityIds.get(number);
+        if (id == null) {
+            id = string(nameIndex) + "_" + number;
+            entityIds.put(number, id);
+        }
+        return id;
+    }
+
+    private String entityId(long number) throws IOException {
+        String id = entityIds.get(number);
+        if (id == null) {
+            throw new IOException("未定义的实体编号: " + number);
+        }
+        return id;
+    }
+
+    private Keyframe.EntityInfo readEntity(String id) throws IOException {
+        Keyframe.EntityInfo ei = new Keyframe.EntityInfo();
+        ei.id = id;
+        ei.name = id.substring(0, id.lastIndexOf('_'));
+        int flags = in.get() & 0xFF;
+        float x = readFixed();
+        float y = readFixed();
+        ei.pos = new Vector2(x, y);
+        if ((flags & BinaryRecordingEncoder.FLAG_RENDER) != 0) {
+            ei.rt = string(readVarint());
+            ei.w = readFixed();
+            ei.h = readFixed();
+            readColor(ei);
+        } else {
+            ei.rt = "CUSTOM";
+        }
+        if ((flags & BinaryRecordingEncoder.FLAG_HIDDEN) != 0) ei.v = 0;
+        if ((flags & BinaryRecordingEncoder.FLAG_HEALTH) != 0) {
+            ei.hp = readFixed();
+            ei.maxHp = readFixed();
+        }
+        if ((flags & BinaryRecordingEncoder.FLAG_INVINCIBLE) != 0) ei.inv = 1;
+        return ei;
+    }
+
+    private void readColor(Keyframe.EntityInfo ei) {
+        ei.r = (in.get() & 0xFF) / 255f;
+        ei.g = (in.get() & 0xFF) / 255f;
+        ei.b = (in.get() & 0xFF) / 255f;
+        ei.a = (in.get() & 0xFF) / 255f;
+    }
+
+    private String string(long index) throws IOException {
+        if (index < 0 || index >= strings.size() || strings.get((int) index) == null) {
+            throw new IOException("字符串编号越界: " + index);
+        }
+        return strings.get((int) index);
+    }
+
+    private String readString() {
+        int length = (int) readVarint();
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private float readFixed() {
+        return readZigZag() / scale;
+    }
+
+    private long readZigZag() {
+        long raw = readVarint();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.gameengine.recording;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二进制录制编码
+ *
+ * 文件头："HVMR"、版本（1 字节）、小数位数（1 字节）、varint 宽、varint 高。
+ * 之后是一串记录，每条以 1 字节标签开头：
+ * <pre>
+ * STRING   varint 编号 + varint 长度 + UTF-8 字节，供名称和渲染类型引用
+ * INPUT    varint 时间（毫秒） + varint 按键数 + varint 按键...
+ * KEYFRAME varint 时间（毫秒） + 1 字节是否有全局状态
+ *          [zigzag 分数, zigzag fcd, zigzag bcd, 1 字节 over]
+ *          + varint 实体数 + (varint 编号 + varint 名称字符串编号 + 实体)...
+ * DELTA    varint 时间（毫秒） + 1 字节全局状态是否变化 [同上]
+ *          + varint 变化实体数 + (varint 编号 + varint 字段掩码 [+ 名称] + 变化的字段)...
+ *          + varint 消失实体数 + varint 编号...
+ * INDEX    全部字符串 + varint 结束时间 + varint 完整帧数 + (varint 时间差, varint 偏移差)...
+ * 实体     1 字节标志 + zigzag x, zigzag y
+ *          [有渲染：varint 类型字符串编号, zigzag w, zigzag h, 4 字节 RGBA]
+ *          [有生命：zigzag hp, zigzag maxHp]
+ * </pre>
+ * 坐标、尺寸、冷却和生命值都量化为定点数（乘以 10^小数位数），颜色量化为 0~255。
+ * 每 fullKeyframeEvery 个关键帧写一个完整帧，其余只写相对上一帧的增量，
+ * 字段掩码见 {@link KeyframeDelta}；掩码含 FULL 时后面是完整的实体内容，含 NEW 时先跟名称。
+ * 实体编号在首次出现时按顺序分配。
+ *
+ * 完整帧不依赖之前的记录（字符串表除外），录制结束时在末尾写 INDEX 记录，
+ * 最后是 12 字节的文件尾：8 字节 INDEX 记录偏移（大端）+ "HVMI"。
+ * {@link SeekableRecording} 据此直接定位到任意时刻附近的完整帧。
+ */
+public class BinaryRecordingEncoder implements RecordingEncoder {
+    static final byte[] MAGIC = { 'H', 'V', 'M', 'R' };
+    static final byte[] INDEX_MAGIC = { 'H', 'V', 'M', 'I' };
+    static final int FOOTER_SIZE = 12;
+    static final int VERSION = 2;
+
+    static final int TAG_STRING = 1;
+    static final int TAG_INPUT = 2;
+    static final int TAG_KEYFRAME = 3;
+    static final int TAG_DELTA = 4;
+    static final int TAG_INDEX = 5;
+
+    static final int FLAG_RENDER = 1;
+    static final int FLAG_HIDDEN = 1 << 1;
+    static final int FLAG_HEALTH = 1 << 2;
+    static final int FLAG_INVINCIBLE = 1 << 3;
+
+    private final RecordingStorage storage;
+    private final int decimals;
+    private final float scale;
+    private final ByteSink strings;
+    private final ByteSink body;
+    private final Map<String, Integer> stringIds;
+    private final List<String> stringTable;
+    private final Map<String, Integer> entityIds;
+    private int nextEntityId;
+    private final int fullKeyframeEvery;
+    private Keyframe previous;
+    private int sinceFull;
+    private long position;
+    private long[] indexTimes;
+    private long[] indexOffsets;
+    private int indexCount;
+
+    public BinaryRecordingEncoder(RecordingStorage storage, int quantizeDecimals) {
+        this(storage, quantizeDecimals, 1);
+    }
+
+    /**
+     * @param fullKeyframeEvery 每隔多少个关键帧写一个完整帧，1 表示不使用增量帧
+     */
+    public BinaryRecordingEncoder(RecordingStorage storage, int quantizeDecimals, int fullKeyframeEvery) {
+        this.storage = storage;
+        this.fullKeyframeEvery = Math.max(1, fullKeyframeEvery);
+        this.decimals = Math.max(0, Math.min(6, quantizeDecimals));
+        this.scale = (float) Math.pow(10, decimals);
+        this.strings = new ByteSink(256);
+        this.body = new ByteSink(16 * 1024);
+        this.stringIds = new HashMap<>();
+        this.stringTable = new ArrayList<>();
+        this.indexTimes = new long[64];
+        this.indexOffsets = new long[64];
+        this.entityIds = new HashMap<>();
+    }
+
+    @Override
+    public void writeHeader(int width, int height) throws IOException {
+        body.reset();
+        body.writeBytes(MAGIC, 0, MAGIC.length);
+        body.writeByte(VERSION);
+        body.writeByte(decimals);
+        body.writeVarint(width);
+        body.writeVarint(height);
+        write(body);
+    }
+
+    @Override
+    public void writeInput(double t, int[] keys) throws IOException {
+        body.reset();
+        body.writeByte(TAG_INPUT);
+        body.writeVarint(millis(t));
+        body.writeVarint(keys.length);
+        for (int key : keys) {
+            body.writeVarint(key);
+        }
+        write(body);
+    }
+
+    @Override
+    public void writeKeyframe(Keyframe keyframe) throws IOException {
+        strings.reset();
+        body.reset();
+        boolean full = previous == null || sinceFull + 1 >= fullKeyframeEvery
+                || (keyframe.global == null && previous.global != null);
+        if (full) {
+            writeFull(keyframe);
+            addIndexEntry(millis(keyframe.t), position + strings.size());
+            sinceFull = 0;
+        } else {
+            writeDelta(keyframe);
+            sinceFull++;
+        }
+        previous = keyframe;
+
+        // 新字符串必须先于引用它们的关键帧写出
+        write(strings);
+        write(body);
+    }
+
+    /**
+     * 写出索引记录和文件尾
+     */
+    @Override
+    public void finish() throws IOException {
+        long indexOffset = position;
+        body.reset();
+        body.writeByte(TAG_INDEX);
+        body.writeVarint(stringTable.size());
+        for (String value : stringTable) {
+            body.writeString(value);
+        }
+        body.writeVarint(previous != null ? millis(previous.t) : 0);
+        body.writeVarint(indexCount);
+        long lastTime = 0;
+        long lastOffset = 0;
+        for (int i = 0; i < indexCount; i++) {
+            body.writeVarint(indexTimes[i] - lastTime);
+            body.writeVarint(indexOffsets[i] - lastOffset);
+            lastTime = indexTimes[i];
+            lastOffset = indexOffsets[i];
+        }
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            body.writeByte((int) (indexOffset >>> shift));
+        }
+        body.writeBytes(INDEX_MAGIC, 0, INDEX_MAGIC.length);
+        write(body);
+    }
+
+    private void writeFull(Keyframe keyframe) {
+        body.writeByte(TAG_KEYFRAME);
+        body.writeVarint(millis(keyframe.t));
+
+        Keyframe.GlobalInfo global = keyframe.global;
+        body.writeByte(global != null ? 1 : 0);
+        if (global != null) {
+            writeGlobal(global);
+        }
+
+        body.writeVarint(keyframe.entities.size());
+        for (Keyframe.EntityInfo ei : keyframe.entities.values()) {
+            // 完整帧总是带上名称，从这里开始解码不需要之前的记录
+            body.writeVarint(entityId(ei));
+            body.writeVarint(stringId(ei.name));
+            writeEntity(ei);
+        }
+        // 恰好在完整帧消失的实体没有经过增量帧的移除列表，在这里释放编号映射
+        entityIds.keySet().retainAll(keyframe.entities.keySet());
+    }
+
+    private void writeDelta(Keyframe keyframe) {
+        body.writeByte(TAG_DELTA);
+        body.writeVarint(millis(keyframe.t));
+
+        boolean globalChanged = KeyframeDelta.globalChanged(previous.global, keyframe.global, scale);
+        body.writeByte(globalChanged ? 1 : 0);
+        if (globalChanged) {
+            writeGlobal(keyframe.global);
+        }
+
+        // 先数出变化的实体数，计数写在实体前面
+        int changed = 0;
+        for (Keyframe.EntityInfo ei : keyframe.entities.values()) {
+            Keyframe.EntityInfo prev = previous.entities.get(ei.id);
+            if (prev == null || KeyframeDelta.diff(prev, ei, scale) != 0) changed++;
+        }
+        body.writeVarint(changed);
+        for (Keyframe.EntityInfo ei : keyframe.entities.values()) {
+            Keyframe.EntityInfo prev = previous.entities.get(ei.id);
+            int mask = prev == null ? KeyframeDelta.FULL : KeyframeDelta.diff(prev, ei, scale);
+            if (mask == 0) continue;
+            boolean added = !entityIds.containsKey(ei.id);
+            body.writeVarint(entityId(ei));
+            if (added) {
+                body.writeVarint(mask | KeyframeDelta.NEW);
+                body.writeVarint(stringId(ei.name));
+            } else {
+                body.writeVarint(mask);
+            }
+            if ((mask & KeyframeDelta.FULL) != 0) {
+                writeEntity(ei);
+                continue;
+            }
+            if ((mask & KeyframeDelta.X) != 0) body.writeZigZag(fixed(ei.pos.x));
+            if ((mask & KeyframeDelta.Y) != 0) body.writeZigZag(fixed(ei.pos.y));
+            if ((mask & KeyframeDelta.W) != 0) body.writeZigZag(fixed(ei.w));
+            if ((mask & KeyframeDelta.H) != 0) body.writeZigZag(fixed(ei.h));
+            if ((mask & KeyframeDelta.COLOR) != 0) writeColor(ei);
+            if ((mask & KeyframeDelta.HP) != 0) body.writeZigZag(fixed(ei.hp));
+            if ((mask & KeyframeDelta.MAX_HP) != 0) body.writeZigZag(fixed(ei.maxHp));
+            if ((mask & KeyframeDelta.FLAGS) != 0) body.writeByte(flags(ei));
+        }
+
+        int removed = 0;
+        for (String id : previous.entities.keySet()) {
+            if (!keyframe.entities.containsKey(id)) removed++;
+        }
+        body.writeVarint(removed);
+        for (String id : previous.entities.keySet()) {
+            if (!keyframe.entities.containsKey(id)) {
+                // 消失的实体不会再出现，释放编号映射
+                body.writeVarint(entityIds.remove(id));
+            }
+        }
+    }
+
+    private void writeGlobal(Keyframe.GlobalInfo global) {
+        body.writeZigZag(global.score);
+        body.writeZigZag(fixed(global.fcd));
+        body.writeZigZag(fixed(global.bcd));
+        body.writeByte(global.over ? 1 : 0);
+    }
+
+    private int entityId(Keyframe.EntityInfo ei) {
+        Integer id = entityIds.get(ei.id);
+        if (id == null) {
+            id = nextEntityId++;
+            entityIds.put(ei.id, id);
+        }
+        return id;
+    }
+
+    private void writeEntity(Keyframe.EntityInfo ei) {
+        body.writeByte(flags(ei));
+        body.writeZigZag(fixed(ei.pos.x));
+        body.writeZigZag(fixed(ei.pos.y));
+        if (!"CUSTOM".equals(ei.rt)) {
+            body.writeVarint(stringId(ei.rt));
+            body.writeZigZag(fixed(ei.w));
+            body.writeZigZag(fixed(ei.h));
+            writeColor(ei);
+        }
+        if (ei.maxHp >= 0) {
+            body.writeZigZag(fixed(ei.hp));
+            body.writeZigZag(fixed(ei.maxHp));
+        }
+    }
+
+    private void writeColor(Keyframe.EntityInfo ei) {
+        body.writeByte(KeyframeDelta.channel(ei.r));
+        body.writeByte(KeyframeDelta.channel(ei.g));
+        body.writeByte(KeyframeDelta.channel(ei.b));
+        body.writeByte(KeyframeDelta.channel(ei.a));
+    }
+
+    private static int flags(Keyframe.EntityInfo ei) {
+        int flags = 0;
+        if (!"CUSTOM".equals(ei.rt)) flags |= FLAG_RENDER;
+        if (ei.v == 0) flags |= FLAG_HIDDEN;
+        if (ei.maxHp >= 0) flags |= FLAG_HEALTH;
+        if (ei.inv == 1) flags |= FLAG_INVINCIBLE;
+        return flags;
+    }
+
+    private int stringId(String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = stringIds.size();
+            stringIds.put(value, id);
+            stringTable.add(value);
+            strings.writeByte(TAG_STRING);
+            strings.writeVarint(id);
+            strings.writeString(value);
+        }
+        return id;
+    }
+
+    private void addIndexEntry(long time, long offset) {
+        if (indexCount == indexTimes.length) {
+            indexTimes = Arrays.copyOf(indexTimes, indexCount * 2);
+            indexOffsets = Arrays.copyOf(indexOffsets, indexCount * 2);
+        }
+        indexTimes[indexCount] = time;
+        indexOffsets[indexCount] = offset;
+        indexCount++;
+    }
+
+    private void write(ByteSink sink) throws IOException {
+        if (sink.size() > 0) {
+            storage.writeBytes(sink.array(), 0, sink.size());
+            position += sink.size();
+        }
+    }
+
+    private long fixed(float value) {
+        return KeyframeDelta.fixed(value, scale);
+    }
+
+    private static long millis(double t) {
+        return Math.round(t * 1000.0);
+    }
+}
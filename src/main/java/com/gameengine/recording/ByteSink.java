@@ -0,0 +1,70 @@
+package com.gameengine.recording;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 可增长的字节缓冲，提供二进制录制用的变长整数写入
+ */
+final class ByteSink {
+    private byte[] data;
+    private int size;
+
+    ByteSink(int capacity) {
+        this.data = new byte[Math.max(16, capacity)];
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] array() {
+        return data;
+    }
+
+    void writeByte(int value) {
+        ensure(1);
+        data[size++] = (byte) value;
+    }
+
+    /**
+     * 无符号 LEB128 变长整数，每字节 7 位
+     */
+    void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    /**
+     * 有符号整数先做 zigzag 映射，使绝对值小的负数也只占少量字节
+     */
+    void writeZigZag(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    void writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, data, size, length);
+        size += length;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.gameengine.recording;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按列存放的回放时间线
+ *
+ * 关键帧逐个追加进来后不再保留 {@link Keyframe} 对象：每个实体分到一个整数编号，
+ * 它在各帧的位置、尺寸、颜色、生命值分别存放在以帧序号为下标的基本类型数组里
+ * （从实体第一次出现的帧开始），每帧出现了哪些实体用一个整数数组记录。
+ * 回放插值时直接按 (实体, 帧) 读取数组元素，不经过哈希表和包装对象。
+ *
+ * 多数列在很长时间内不变（静止的装饰物、尺寸、颜色），所以一列在第一次变化之前只存一个值，
+ * 即长度为 1 的数组；相邻帧的实体列表相同时也共用同一段记录。
+ *
+ * 只在一个线程（游戏线程）上使用。
+ */
+public class ColumnarTimeline {
+    private static final byte PRESENT = 1;
+    private static final byte VISIBLE = 1 << 1;
+    private static final byte INVINCIBLE = 1 << 2;
+
+    // 列第一次变化时展开后的最小容量
+    private static final int MIN_CAPACITY = 16;
+
+    // 帧：第 f 帧的实体是 frameEntities[listStart[f], listStart[f] + listSize[f])
+    private double[] times = new double[256];
+    private Keyframe.GlobalInfo[] globals = new Keyframe.GlobalInfo[256];
+    private int[] listStart = new int[256];
+    private int[] listSize = new int[256];
+    private int[] frameEntities = new int[256];
+    private int entityEntries;
+    private int frameCount;
+
+    // 实体，列数组的下标是 帧序号 - firstFrame；长度为 1 的列表示到目前为止一直是这个值
+    private final Map<String, Integer> entityIndex = new HashMap<>();
+    private String[] ids = new String[64];
+    private String[] names = new String[64];
+    private String[] renderTypes = new String[64];
+    private int[] firstFrame = new int[64];
+    private int[] lengths = new int[64];
+    private float[][] xs = new float[64][];
+    private float[][] ys = new float[64][];
+    private float[][] ws = new float[64][];
+    private float[][] hs = new float[64][];
+    private int[][] colors = new int[64][];
+    private float[][] hps = new float[64][];
+    private float[][] maxHps = new float[64][];
+    private byte[][] flags = new byte[64][];
+    private int entityCount;
+
+    /**
+     * 追加一帧，时间必须不早于上一帧
+     * @return 新帧的序号
+     */
+    public int append(Keyframe kf) {
+        int frame = frameCount;
+        if (frame == times.length) {
+            // trim() 之后数组可能为空，不能只按两倍扩容
+            int capacity = Math.max(MIN_CAPACITY, frame * 2);
+            times = Arrays.copyOf(times, capacity);
+            globals = Arrays.copyOf(globals, capacity);
+            listStart = Arrays.copyOf(listStart, capacity);
+            listSize = Arrays.copyOf(listSize, capacity);
+        }
+        times[frame] = kf.t;
+        globals[frame] = kf.global;
+
+        // 实体列表先写在末尾，和上一帧相同时再撤回
+        int start = entityEntries;
+        int count = kf.entities.size();
+        if (start + count > frameEntities.length) {
+            frameEntities = Arrays.copyOf(frameEntities, Math.max(frameEntities.length * 2, start + count));
+        }
+        int entry = start;
+        for (Keyframe.EntityInfo ei : kf.entities.values()) {
+            int e = entityFor(ei, frame);
+            int k = frame - firstFrame[e];
+            int n = lengths[e];
+            if (k > n && flags[e].length == 1) {
+                // 中间缺席的帧 flags 为 0，不再是同一个值
+                flags[e] = expand(flags[e], n, k);
+            }
+            xs[e] = put(xs[e], n, k, ei.pos.x);
+            ys[e] = put(ys[e], n, k, ei.pos.y);
+            ws[e] = put(ws[e], n, k, ei.w);
+            hs[e] = put(hs[e], n, k, ei.h);
+            colors[e] = put(colors[e], n, k, packColor(ei));
+            hps[e] = put(hps[e], n, k, ei.hp);
+            maxHps[e] = put(maxHps[e], n, k, ei.maxHp);
+            flags[e] = put(flags[e], n, k, (byte) (PRESENT | (ei.v == 1 ? VISIBLE : 0) | (ei.inv == 1 ? INVINCIBLE : 0)));
+            lengths[e] = k + 1;
+            frameEntities[entry++] = e;
+        }
+        if (frame > 0 && listSize[frame - 1] == count
+                && Arrays.equals(frameEntities, listStart[frame - 1], listStart[frame - 1] + count, frameEntities, start, entry)) {
+            listStart[frame] = listStart[frame - 1];
+        } else {
+            listStart[frame] = start;
+            entityEntries = entry;
+        }
+        listSize[frame] = count;
+        frameCount++;
+        return frame;
+    }
+
+    /**
+     * 把缓冲中尚未转换的关键帧追加进来，最多 maxFrames 帧；转换过的帧从缓冲中释放
+     * @return 本次追加的帧数
+     */
+    public int appendFrom(KeyframeBuffer buffer, int maxFrames) {
+        int end = Math.min(buffer.size(), frameCount + maxFrames);
+        int added = 0;
+        for (int i = frameCount; i < end; i++) {
+            append(buffer.get(i));
+            added++;
+        }
+        buffer.release(frameCount);
+        return added;
+    }
+
+    /**
+     * 把各数组收缩到实际长度，追加结束后调用可以去掉扩容留下的空余
+     */
+    public void trim() {
+        for (int e = 0; e < entityCount; e++) {
+            int n = lengths[e];
+            if (xs[e].length > n) xs[e] = Arrays.copyOf(xs[e], n);
+            if (ys[e].length > n) ys[e] = Arrays.copyOf(ys[e], n);
+            if (ws[e].length > n) ws[e] = Arrays.copyOf(ws[e], n);
+            if (hs[e].length > n) hs[e] = Arrays.copyOf(hs[e], n);
+            if (colors[e].length > n) colors[e] = Arrays.copyOf(colors[e], n);
+            if (hps[e].length > n) hps[e] = Arrays.copyOf(hps[e], n);
+            if (maxHps[e].length > n) maxHps[e] = Arrays.copyOf(maxHps[e], n);
+            if (flags[e].length > n) flags[e] = Arrays.copyOf(flags[e], n);
+        }
+        times = Arrays.copyOf(times, frameCount);
+        globals = Arrays.copyOf(globals, frameCount);
+        listStart = Arrays.copyOf(listStart, frameCount);
+        listSize = Arrays.copyOf(listSize, frameCount);
+        frameEntities = Arrays.copyOf(frameEntities, entityEntries);
+    }
+
+    public int size() {
+        return frameCount;
+    }
+
+    public double getTime(int frame) {
+        return times[frame];
+    }
+
+    public Keyframe.GlobalInfo getGlobal(int frame) {
+        return globals[frame];
+    }
+
+    /**
+     * 第 frame 帧中的实体个数
+     */
+    public int getEntityCount(int frame) {
+        return listSize[frame];
+    }
+
+    /**
+     * 第 frame 帧中第 k 个实体的编号，顺序与录制时场景中的顺序相同
+     */
+    public int getEntity(int frame, int k) {
+        return frameEntities[listStart[frame] + k];
+    }
+
+    /**
+     * 出现过的实体总数，实体编号小于这个值
+     */
+    public int getTotalEntities() {
+        return entityCount;
+    }
+
+    public String getId(int e) {
+        return ids[e];
+    }
+
+    public String getName(int e) {
+        return names[e];
+    }
+
+    /**
+     * 实体第一次出现时的渲染类型
+     */
+    public String getRenderType(int e) {
+        return renderTypes[e];
+    }
+
+    /**
+     * 实体是否出现在第 frame 帧
+     */
+    public boolean has(int e, int frame) {
+        int k = frame - firstFrame[e];
+        return k >= 0 && k < lengths[e] && (flags(e, k) & PRESENT) != 0;
+    }
+
+    // 以下按 (实体, 帧) 读取，调用方需保证 has(e, frame)
+
+    public float getX(int e, int frame) {
+        return get(xs[e], frame - firstFrame[e]);
+    }
+
+    public float getY(int e, int frame) {
+        return get(ys[e], frame - firstFrame[e]);
+    }
+
+    public float getWidth(int e, int frame) {
+        return get(ws[e], frame - firstFrame[e]);
+    }
+
+    public float getHeight(int e, int frame) {
+        return get(hs[e], frame - firstFrame[e]);
+    }
+
+    /**
+     * 颜色分量，component 为 0..3 依次对应 r、g、b、a，精度为 1/255
+     */
+    public float getColor(int e, int frame, int component) {
+        int[] column = colors[e];
+        int rgba = column[column.length == 1 ? 0 : frame - firstFrame[e]];
+        return ((rgba >>> (24 - component * 8)) & 0xFF) / 255f;
+    }
+
+    public float getHp(int e, int frame) {
+        return get(hps[e], frame - firstFrame[e]);
+    }
+
+    public float getMaxHp(int e, int frame) {
+        return get(maxHps[e], frame - firstFrame[e]);
+    }
+
+    public boolean isVisible(int e, int frame) {
+        return (flags(e, frame - firstFrame[e]) & VISIBLE) != 0;
+    }
+
+    public boolean isInvincible(int e, int frame) {
+        return (flags(e, frame - firstFrame[e]) & INVINCIBLE) != 0;
+    }
+
+    private byte flags(int e, int k) {
+        byte[] column = flags[e];
+        return column[column.length == 1 ? 0 : k];
+    }
+
+    private static float get(float[] column, int k) {
+        return column[column.length == 1 ? 0 : k];
+    }
+
+    private int entityFor(Keyframe.EntityInfo ei, int frame) {
+        Integer index = entityIndex.get(ei.id);
+        if (index != null) {
+            return index;
+        }
+        int e = entityCount++;
+        if (e == ids.length) {
+            int capacity = e * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            renderTypes = Arrays.copyOf(renderTypes, capacity);
+            firstFrame = Arrays.copyOf(firstFrame, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            ws = Arrays.copyOf(ws, capacity);
+            hs = Arrays.copyOf(hs, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            hps = Arrays.copyOf(hps, capacity);
+            maxHps = Arrays.copyOf(maxHps, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        ids[e] = ei.id;
+        names[e] = ei.name;
+        renderTypes[e] = ei.rt;
+        firstFrame[e] = frame;
+        lengths[e] = 0;
+        xs[e] = new float[1];
+        ys[e] = new float[1];
+        ws[e] = new float[1];
+        hs[e] = new float[1];
+        colors[e] = new int[1];
+        hps[e] = new float[1];
+        maxHps[e] = new float[1];
+        flags[e] = new byte[1];
+        entityIndex.put(ei.id, e);
+        return e;
+    }
+
+    // put：在已写 length 个元素的列中写入下标 k；列仍是单个值且新值相同时不展开
+
+    private static float[] put(float[] column, int length, int k, float value) {
+        if (k == 0) {
+            column[0] = value;
+            return column;
+        }
+        if (column.length == 1) {
+            if (Float.floatToIntBits(column[0]) == Float.floatToIntBits(value)) return column;
+            column = expand(column, length, k);
+        } else if (k >= column.length) {
+            column = Arrays.copyOf(column, Math.max(column.length * 2, k + 1));
+        }
+        column[k] = value;
+        return column;
+    }
+
+    private static int[] put(int[] column, int length, int k, int value) {
+        if (k == 0) {
+            column[0] = value;
+            return column;
+        }
+        if (column.length == 1) {
+            if (column[0] == value) return column;
+            column = expand(column, length, k);
+        } else if (k >= column.length) {
+            column = Arrays.copyOf(column, Math.max(column.length * 2, k + 1));
+        }
+        column[k] = value;
+        return column;
+    }
+
+    private static byte[] put(byte[] column, int length, int k, byte value) {
+        if (k == 0) {
+            column[0] = value;
+            return column;
+        }
+        if (column.length == 1) {
+            if (column[0] == value) return column;
+            column = expand(column, length, k);
+        } else if (k >= column.length) {
+            column = Arrays.copyOf(column, Math.max(column.length * 2, k + 1));
+        }
+        column[k] = value;
+        return column;
+    }
+
+    /**
+     * 把单值列展开成逐帧的数组，前 length 个元素填入原来的值，之后为 0
+     */
+    private static float[] expand(float[] column, int length, int k) {
+        float[] expanded = new float[Math.max(MIN_CAPACITY, k + 1)];
+        Arrays.fill(expanded, 0, length, column[0]);
+        return expanded;
+    }
+
+    private static int[] expand(int[] column, int length, int k) {
+        int[] expanded = new int[Math.max(MIN_CAPACITY, k + 1)];
+        Arrays.fill(expanded, 0, length, column[0]);
+        return expanded;
+    }
+
+    private static byte[] expand(byte[] column, int length, int k) {
+        byte[] expanded = new byte[Math.max(MIN_CAPACITY, k + 1)];
+        Arrays.fill(expanded, 0, length, column[0]);
+        return expanded;
+    }
+
+    private static int packColor(Keyframe.EntityInfo ei) {
+        return channel(ei.r) << 24 | channel(ei.g) << 16 | channel(ei.b) << 8 | channel(ei.a);
+    }
+
+    private static int channel(float value) {
+        return Math.round(Math.max(0f, Math.min(1f, value)) * 255f);
+    }
+}
@@ -1,21 +1,29 @@
 package com.gameengine.recording;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class FileRecordingStorage implements RecordingStorage {
+    private OutputStream output;
     private BufferedWriter writer;
 
     @Override
     public void openWriter(String path) throws IOException {
         Path p = Paths.get(path);
         if (p.getParent() != null) Files.createDirectories(p.getParent());
-        writer = Files.newBufferedWriter(p);
+        output = new BufferedOutputStream(Files.newOutputStream(p), 64 * 1024);
+        writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
     }
 
     @Override
@@ -25,32 +33,67 @@ public class FileRecordingStorage implements RecordingStorage {
         writer.newLine();
     }
 
+    @Override
+    public void writeBytes(byte[] data, int offset, int length) throws IOException {
+        if (writer == null) throw new IllegalStateException("writer not opened");
+        writer.flush(); // 先写出已缓冲的文本，保证顺序
+        output.write(data, offset, length);
+    }
+
     @Override
     public void closeWriter() {
         if (writer != null) {
             try { writer.flush(); } catch (Exception ignored) {}
             try { writer.close(); } catch (Exception ignored) {}
             writer = null;
+            output = null;
         }
     }
 
     @Override
     public Iterable<String> readLines(String path) throws IOException {
-        List<String> lines = new ArrayList<>();
-        try (BufferedReader br = Files.newBufferedReader(Paths.get(path))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                lines.add(line);
+        // 按需逐行解码，不把整个文件读成字符串列表
+        ByteBuffer data = map(path);
+        return () -> new Iterator<String>() {
+            private final RecordReader reader = new RecordReader(data);
+            private ByteBuffer next = reader.next();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (next == null) throw new NoSuchElementException();
+                String line = RecordReader.decode(next);
+                next = reader.next();
+                return line;
+            }
+        };
+    }
+
+    @Override
+    public InputStream openInput(String path) throws IOException {
+        return new BufferedInputStream(Files.newInputStream(Paths.get(path)));
+    }
+
+    @Override
+    public ByteBuffer map(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("录制文件过大，无法映射: " + path);
             }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
         }
-        return lines;
     }
 
     @Override
     public List<File> listRecordings() {
         File dir = new File("recordings");
         if (!dir.exists() || !dir.isDirectory()) return new ArrayList<>();
-        File[] files = dir.listFiles((d, name) -> name.endsWith(".json") || name.endsWith(".jsonl"));
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(RecordingFormat.BINARY.getExtension()));
         if (files == null) return new ArrayList<>();
         Arrays.sort(files, (a,b) -> Long.compare(b.lastModified(), a.lastModified()));
         return new ArrayList<>(Arrays.asList(files));
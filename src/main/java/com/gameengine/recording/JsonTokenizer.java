@@ -0,0 +1,235 @@
+package com.gameengine.recording;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 单遍拉取式 JSON 词法分析器
+ *
+ * 直接在 UTF-8 字节上工作，逐个返回记号。字段名用 {@link #nameIs(byte[])} 与预先准备的
+ * 字节比较，数字原地解析，字符串经过一个小的字符串池，录制中反复出现的实体 id 和渲染类型
+ * 只在第一次出现时分配。一个实例可以通过 {@link #reset(ByteBuffer)} 反复使用，但不是线程安全的。
+ */
+public final class JsonTokenizer {
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END
+    }
+
+    private static final int POOL_SIZE = 1024;
+
+    private ByteBuffer data;
+    private int position;
+    private int limit;
+    private int valueStart;
+    private int valueEnd;
+    private boolean escaped;
+    private final byte[][] poolBytes = new byte[POOL_SIZE][];
+    private final String[] poolStrings = new String[POOL_SIZE];
+
+    public JsonTokenizer() {
+    }
+
+    public JsonTokenizer(ByteBuffer data) {
+        reset(data);
+    }
+
+    /**
+     * 字符串按 UTF-8 编码后分析
+     */
+    public JsonTokenizer(CharSequence json) {
+        reset(ByteBuffer.wrap(json.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 改为分析新的数据，字符串池保留
+     */
+    public JsonTokenizer reset(ByteBuffer data) {
+        this.data = data;
+        this.position = data.position();
+        this.limit = data.limit();
+        return this;
+    }
+
+    /**
+     * 下一个记号；逗号和冒号被跳过，字段名作为 NAME 返回，数据结束时返回 END
+     */
+    public Token next() {
+        while (position < limit) {
+            byte b = data.get(position);
+            switch (b) {
+                case '{':
+                    position++;
+                    return Token.BEGIN_OBJECT;
+                case '}':
+                    position++;
+                    return Token.END_OBJECT;
+                case '[':
+                    position++;
+                    return Token.BEGIN_ARRAY;
+                case ']':
+                    position++;
+                    return Token.END_ARRAY;
+                case ',':
+                case ':':
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    position++;
+                    break;
+                case '"':
+                    readString();
+                    return isNameFollowing() ? Token.NAME : Token.STRING;
+                case 't':
+                    return literal(4, Token.TRUE);
+                case 'f':
+                    return literal(5, Token.FALSE);
+                case 'n':
+                    return literal(4, Token.NULL);
+                default:
+                    valueStart = position;
+                    while (position < limit && isNumberByte(data.get(position))) position++;
+                    valueEnd = position;
+                    if (valueEnd == valueStart) {
+                        position++; // 无法识别的字节，跳过
+                        break;
+                    }
+                    return Token.NUMBER;
+            }
+        }
+        return Token.END;
+    }
+
+    /**
+     * 跳过刚读到的 BEGIN_OBJECT / BEGIN_ARRAY 对应的整个值；其它记号本身就是完整的值
+     */
+    public void skipValue(Token token) {
+        if (token != Token.BEGIN_OBJECT && token != Token.BEGIN_ARRAY) return;
+        int depth = 1;
+        while (depth > 0) {
+            Token t = next();
+            if (t == Token.BEGIN_OBJECT || t == Token.BEGIN_ARRAY) {
+                depth++;
+            } else if (t == Token.END_OBJECT || t == Token.END_ARRAY) {
+                depth--;
+            } else if (t == Token.END) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 上一个 NAME 或 STRING 的内容是否等于给定字节（不含引号）
+     */
+    public boolean nameIs(byte[] name) {
+        if (escaped || valueEnd - valueStart != name.length) return false;
+        for (int i = 0; i < name.length; i++) {
+            if (data.get(valueStart + i) != name[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 上一个 NUMBER 的值，不是合法数字时返回 fallback
+     */
+    public double numberValue(double fallback) {
+        return RecordReader.parseNumber(data, valueStart, valueEnd, fallback);
+    }
+
+    /**
+     * 上一个 NAME 或 STRING 的内容；相同内容的字符串从池中复用同一个实例
+     */
+    public String stringValue() {
+        if (escaped) {
+            return unescape();
+        }
+        int length = valueEnd - valueStart;
+        int hash = 1;
+        for (int i = valueStart; i < valueEnd; i++) {
+            hash = 31 * hash + data.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (POOL_SIZE - 1);
+        byte[] cached = poolBytes[slot];
+        if (cached != null && cached.length == length && nameIs(cached)) {
+            return poolStrings[slot];
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = data.get(valueStart + i);
+        }
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        poolBytes[slot] = bytes;
+        poolStrings[slot] = value;
+        return value;
+    }
+
+    private void readString() {
+        int i = position + 1;
+        valueStart = i;
+        escaped = false;
+        while (i < limit) {
+            byte b = data.get(i);
+            if (b == '"') break;
+            if (b == '\\') {
+                escaped = true;
+                i++;
+            }
+            i++;
+        }
+        valueEnd = Math.min(i, limit);
+        position = Math.min(i + 1, limit);
+    }
+
+    private boolean isNameFollowing() {
+        int i = position;
+        while (i < limit) {
+            byte b = data.get(i);
+            if (b == ':') return true;
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') return false;
+            i++;
+        }
+        return false;
+    }
+
+    private Token literal(int length, Token token) {
+        position = Math.min(position + length, limit);
+        return token;
+    }
+
+    private String unescape() {
+        byte[] out = new byte[valueEnd - valueStart];
+        int n = 0;
+        for (int i = valueStart; i < valueEnd; i++) {
+            byte b = data.get(i);
+            if (b != '\\' || i + 1 >= valueEnd) {
+                out[n++] = b;
+                continue;
+            }
+            byte e = data.get(++i);
+            switch (e) {
+                case 'n': out[n++] = '\n'; break;
+                case 't': out[n++] = '\t'; break;
+                case 'r': out[n++] = '\r'; break;
+                case 'b': out[n++] = '\b'; break;
+                case 'f': out[n++] = '\f'; break;
+                case 'u':
+                    if (i + 4 < valueEnd) {
+                        int c = Integer.parseInt(RecordReader.decode(RecordReader.slice(data, i + 1, 4)), 16);
+                        byte[] utf8 = String.valueOf((char) c).getBytes(StandardCharsets.UTF_8);
+                        if (n + utf8.length > out.length) out = Arrays.copyOf(out, n + utf8.length);
+                        System.arraycopy(utf8, 0, out, n, utf8.length);
+                        n += utf8.length;
+                        i += 4;
+                    }
+                    break;
+                default: out[n++] = e; break;
+            }
+        }
+        return new String(out, 0, n, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isNumberByte(byte b) {
+        return (b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+    }
+}
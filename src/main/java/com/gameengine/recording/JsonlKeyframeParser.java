@@ -0,0 +1,241 @@
+package com.gameengine.recording;
+
+import com.gameengine.math.Vector2;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 解析 JSONL 录制中的 keyframe 和 delta 行
+ *
+ * 用 {@link JsonTokenizer} 单遍读取整行，实体字段先填进一个复用的 EntityInfo，
+ * 读完一个实体后再决定新建还是在上一帧的基础上修改，解析过程中不产生字段子串。
+ * 每个实例内部有状态，一个线程用一个实例。
+ */
+public final class JsonlKeyframeParser {
+    private static final byte[] T = RecordReader.ascii("t");
+    private static final byte[] GLOBAL = RecordReader.ascii("global");
+    private static final byte[] ENTITIES = RecordReader.ascii("entities");
+    private static final byte[] REMOVED = RecordReader.ascii("removed");
+    private static final byte[] SCORE = RecordReader.ascii("score");
+    private static final byte[] FCD = RecordReader.ascii("fcd");
+    private static final byte[] BCD = RecordReader.ascii("bcd");
+    private static final byte[] OVER = RecordReader.ascii("over");
+    private static final byte[] ID = RecordReader.ascii("id");
+    private static final byte[] FULL = RecordReader.ascii("full");
+    private static final byte[] X = RecordReader.ascii("x");
+    private static final byte[] Y = RecordReader.ascii("y");
+    private static final byte[] RT = RecordReader.ascii("rt");
+    private static final byte[] W = RecordReader.ascii("w");
+    private static final byte[] H = RecordReader.ascii("h");
+    private static final byte[] COLOR = RecordReader.ascii("color");
+    private static final byte[] HP = RecordReader.ascii("hp");
+    private static final byte[] MAX_HP = RecordReader.ascii("maxHp");
+    private static final byte[] V = RecordReader.ascii("v");
+    private static final byte[] INV = RecordReader.ascii("inv");
+
+    // 实体中出现过的字段
+    private static final int HAS_X = 1;
+    private static final int HAS_Y = 1 << 1;
+    private static final int HAS_RT = 1 << 2;
+    private static final int HAS_W = 1 << 3;
+    private static final int HAS_H = 1 << 4;
+    private static final int HAS_COLOR = 1 << 5;
+    private static final int HAS_HP = 1 << 6;
+    private static final int HAS_MAX_HP = 1 << 7;
+    private static final int HAS_V = 1 << 8;
+    private static final int HAS_INV = 1 << 9;
+    private static final int HAS_ALPHA = 1 << 10;
+
+    private final JsonTokenizer tokenizer = new JsonTokenizer();
+    private final Keyframe.EntityInfo scratch = new Keyframe.EntityInfo();
+    private final Map<String, String> names = new HashMap<>();
+
+    public JsonlKeyframeParser() {
+        scratch.pos = new Vector2();
+    }
+
+    /**
+     * 解析一条记录
+     * @param base 增量帧所基于的上一帧，解析完整关键帧时为 null
+     */
+    public Keyframe parse(ByteBuffer record, Keyframe base) {
+        JsonTokenizer json = tokenizer.reset(record);
+        Keyframe kf = new Keyframe();
+        if (base != null) {
+            kf.global = base.global;
+            kf.entities.putAll(base.entities);
+        }
+        if (json.next() != JsonTokenizer.Token.BEGIN_OBJECT) {
+            return kf;
+        }
+
+        while (json.next() == JsonTokenizer.Token.NAME) {
+            if (json.nameIs(T)) {
+                kf.t = number(json.next(), 0.0);
+            } else if (json.nameIs(GLOBAL)) {
+                kf.global = parseGlobal(json.next());
+            } else if (json.nameIs(ENTITIES)) {
+                if (json.next() != JsonTokenizer.Token.BEGIN_ARRAY) continue;
+                while (json.next() == JsonTokenizer.Token.BEGIN_OBJECT) {
+                    parseEntity(kf, base);
+                }
+            } else if (json.nameIs(REMOVED)) {
+                if (json.next() != JsonTokenizer.Token.BEGIN_ARRAY) continue;
+                while (json.next() == JsonTokenizer.Token.STRING) {
+                    if (base != null) kf.entities.remove(json.stringValue());
+                }
+            } else {
+                json.skipValue(json.next());
+            }
+        }
+        return kf;
+    }
+
+    private Keyframe.GlobalInfo parseGlobal(JsonTokenizer.Token token) {
+        JsonTokenizer json = tokenizer;
+        Keyframe.GlobalInfo global = new Keyframe.GlobalInfo();
+        if (token != JsonTokenizer.Token.BEGIN_OBJECT) {
+            json.skipValue(token);
+            return global;
+        }
+        while (json.next() == JsonTokenizer.Token.NAME) {
+            if (json.nameIs(SCORE)) {
+                global.score = (int) number(json.next(), 0.0);
+            } else if (json.nameIs(FCD)) {
+                global.fcd = (float) number(json.next(), 0.0);
+            } else if (json.nameIs(BCD)) {
+                global.bcd = (float) number(json.next(), 0.0);
+            } else if (json.nameIs(OVER)) {
+                global.over = json.next() == JsonTokenizer.Token.TRUE;
+            } else {
+                json.skipValue(json.next());
+            }
+        }
+        return global;
+    }
+
+    /**
+     * 读取一个实体对象（BEGIN_OBJECT 已读），结果放入 kf
+     */
+    private void parseEntity(Keyframe kf, Keyframe base) {
+        JsonTokenizer json = tokenizer;
+        Keyframe.EntityInfo s = scratch;
+        String id = null;
+        boolean full = false;
+        int present = 0;
+        while (json.next() == JsonTokenizer.Token.NAME) {
+            if (json.nameIs(ID)) {
+                json.next();
+                id = json.stringValue();
+            } else if (json.nameIs(X)) {
+                s.pos.x = (float) number(json.next(), 0.0);
+                present |= HAS_X;
+            } else if (json.nameIs(Y)) {
+                s.pos.y = (float) number(json.next(), 0.0);
+                present |= HAS_Y;
+            } else if (json.nameIs(RT)) {
+                json.next();
+                s.rt = json.stringValue();
+                present |= HAS_RT;
+            } else if (json.nameIs(W)) {
+                s.w = (float) number(json.next(), 0.0);
+                present |= HAS_W;
+            } else if (json.nameIs(H)) {
+                s.h = (float) number(json.next(), 0.0);
+                present |= HAS_H;
+            } else if (json.nameIs(COLOR)) {
+                int components = parseColor(json.next(), s);
+                if (components >= 3) present |= HAS_COLOR;
+                if (components >= 4) present |= HAS_ALPHA;
+            } else if (json.nameIs(HP)) {
+                s.hp = (float) number(json.next(), 0.0);
+                present |= HAS_HP;
+            } else if (json.nameIs(MAX_HP)) {
+                s.maxHp = (float) number(json.next(), 0.0);
+                present |= HAS_MAX_HP;
+            } else if (json.nameIs(V)) {
+                s.v = (int) number(json.next(), 0.0);
+                present |= HAS_V;
+            } else if (json.nameIs(INV)) {
+                s.inv = (int) number(json.next(), 0.0);
+                present |= HAS_INV;
+            } else if (json.nameIs(FULL)) {
+                json.next();
+                full = true;
+            } else {
+                json.skipValue(json.next());
+            }
+        }
+        if (id == null) return;
+
+        Keyframe.EntityInfo prev = kf.entities.get(id);
+        Keyframe.EntityInfo ei;
+        if (base == null || prev == null || full) {
+            ei = new Keyframe.EntityInfo();
+            ei.id = id;
+            ei.name = nameOf(id);
+            ei.pos = new Vector2();
+        } else {
+            ei = prev.copy();
+        }
+        // 只覆盖行中出现的字段
+        if ((present & HAS_X) != 0) ei.pos.x = s.pos.x;
+        if ((present & HAS_Y) != 0) ei.pos.y = s.pos.y;
+        if ((present & HAS_RT) != 0) ei.rt = s.rt;
+        if ((present & HAS_W) != 0) ei.w = s.w;
+        if ((present & HAS_H) != 0) ei.h = s.h;
+        if ((present & HAS_COLOR) != 0) {
+            ei.r = s.r;
+            ei.g = s.g;
+            ei.b = s.b;
+            if ((present & HAS_ALPHA) != 0) ei.a = s.a;
+        }
+        if ((present & HAS_HP) != 0) ei.hp = s.hp;
+        if ((present & HAS_MAX_HP) != 0) ei.maxHp = s.maxHp;
+        if ((present & HAS_V) != 0) ei.v = s.v;
+        if ((present & HAS_INV) != 0) ei.inv = s.inv;
+        kf.entities.put(ei.id, ei);
+    }
+
+    /**
+     * 读取 [r,g,b] 或 [r,g,b,a]，返回分量个数；少于三个分量时调用方忽略颜色
+     */
+    private int parseColor(JsonTokenizer.Token token, Keyframe.EntityInfo s) {
+        if (token != JsonTokenizer.Token.BEGIN_ARRAY) {
+            tokenizer.skipValue(token);
+            return 0;
+        }
+        int n = 0;
+        while ((token = tokenizer.next()) == JsonTokenizer.Token.NUMBER) {
+            float value = (float) tokenizer.numberValue(0.0);
+            switch (n++) {
+                case 0: s.r = value; break;
+                case 1: s.g = value; break;
+                case 2: s.b = value; break;
+                case 3: s.a = value; break;
+                default: break;
+            }
+        }
+        return n;
+    }
+
+    private double number(JsonTokenizer.Token token, double fallback) {
+        if (token == JsonTokenizer.Token.NUMBER) {
+            return tokenizer.numberValue(fallback);
+        }
+        tokenizer.skipValue(token);
+        return fallback;
+    }
+
+    private String nameOf(String id) {
+        String name = names.get(id);
+        if (name == null) {
+            int cut = id.lastIndexOf('_');
+            name = cut >= 0 ? id.substring(0, cut) : id;
+            names.put(id, name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,217 @@
+package com.gameengine.recording;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+
+/**
+ * JSONL 编码：每个事件一行 JSON，数值按 quantizeDecimals 位小数输出
+ *
+ * 每 fullKeyframeEvery 个关键帧写一行完整的 keyframe，其余写 delta 行：
+ * global 只在变化时出现，entities 里只有变化的字段（带 "full":1 的是完整实体），
+ * removed 列出消失的实体。
+ *
+ * 录制结束时追加一行 index（每个完整帧的时间和字节偏移），最后一行是
+ * index_offset，记录 index 行的偏移，供 {@link SeekableRecording} 直接定位。
+ */
+public class JsonlRecordingEncoder implements RecordingEncoder {
+    private static final int LINE_SEPARATOR_LENGTH = System.lineSeparator().length();
+
+    private final RecordingStorage storage;
+    private final DecimalFormat qfmt;
+    private final StringBuilder sb;
+    private final float scale;
+    private final int fullKeyframeEvery;
+    private Keyframe previous;
+    private int sinceFull;
+    private long position;
+    private final StringBuilder index;
+    private int indexCount;
+
+    public JsonlRecordingEncoder(RecordingStorage storage, int quantizeDecimals) {
+        this(storage, quantizeDecimals, 1);
+    }
+
+    /**
+     * @param fullKeyframeEvery 每隔多少个关键帧写一个完整帧，1 表示不使用增量帧
+     */
+    public JsonlRecordingEncoder(RecordingStorage storage, int quantizeDecimals, int fullKeyframeEvery) {
+        this.storage = storage;
+        this.scale = (float) Math.pow(10, Math.max(0, quantizeDecimals));
+        this.fullKeyframeEvery = Math.max(1, fullKeyframeEvery);
+        this.qfmt = new DecimalFormat();
+        this.qfmt.setMaximumFractionDigits(Math.max(0, quantizeDecimals));
+        this.qfmt.setGroupingUsed(false);
+        this.sb = new StringBuilder(4096);
+        this.index = new StringBuilder(1024);
+    }
+
+    @Override
+    public void writeHeader(int width, int height) throws IOException {
+        writeLine("{\"type\":\"header\",\"version\":1,\"w\":" + width + ",\"h\":" + height + "}");
+    }
+
+    @Override
+    public void writeInput(double t, int[] keys) throws IOException {
+        sb.setLength(0);
+        sb.append("{\"type\":\"input\",\"t\":").append(qfmt.format(t)).append(",\"keys\":[");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(keys[i]);
+        }
+        sb.append("]}");
+        writeLine(sb.toString());
+    }
+
+    @Override
+    public void writeKeyframe(Keyframe keyframe) throws IOException {
+        boolean full = previous == null || sinceFull + 1 >= fullKeyframeEvery
+                || (keyframe.global == null && previous.global != null);
+        sb.setLength(0);
+        if (full) {
+            appendFull(keyframe);
+            if (indexCount++ > 0) index.append(',');
+            index.append('[').append(qfmt.format(keyframe.t)).append(',').append(position).append(']');
+            sinceFull = 0;
+        } else {
+            appendDelta(keyframe);
+            sinceFull++;
+        }
+        previous = keyframe;
+        writeLine(sb.toString());
+    }
+
+    @Override
+    public void finish() throws IOException {
+        long indexOffset = position;
+        writeLine("{\"type\":\"index\",\"end\":" + (previous != null ? qfmt.format(previous.t) : "0")
+                + ",\"keyframes\":[" + index + "]}");
+        writeLine("{\"type\":\"index_offset\",\"offset\":" + indexOffset + "}");
+    }
+
+    private void writeLine(String line) throws IOException {
+        storage.writeLine(line);
+        position += utf8Length(line) + LINE_SEPARATOR_LENGTH;
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void appendFull(Keyframe keyframe) {
+        sb.append("{\"type\":\"keyframe\",\"t\":").append(qfmt.format(keyframe.t));
+        if (keyframe.global != null) {
+            appendGlobal(keyframe.global);
+        }
+
+        sb.append(",\"entities\":[");
+        boolean first = true;
+        for (Keyframe.EntityInfo ei : keyframe.entities.values()) {
+            if (!first) sb.append(',');
+            sb.append('{');
+            appendEntity(ei);
+            sb.append('}');
+            first = false;
+        }
+        sb.append("]}");
+    }
+
+    private void appendDelta(Keyframe keyframe) {
+        sb.append("{\"type\":\"delta\",\"t\":").append(qfmt.format(keyframe.t));
+        if (KeyframeDelta.globalChanged(previous.global, keyframe.global, scale)) {
+            appendGlobal(keyframe.global);
+        }
+
+        sb.append(",\"entities\":[");
+        boolean first = true;
+        for (Keyframe.EntityInfo ei : keyframe.entities.values()) {
+            Keyframe.EntityInfo prev = previous.entities.get(ei.id);
+            int mask = prev == null ? KeyframeDelta.FULL : KeyframeDelta.diff(prev, ei, scale);
+            if (mask == 0) continue;
+            if (!first) sb.append(',');
+            sb.append('{');
+            if ((mask & KeyframeDelta.FULL) != 0) {
+                sb.append("\"full\":1,");
+                appendEntity(ei);
+            } else {
+                sb.append("\"id\":\"").append(ei.id).append('"');
+                if ((mask & KeyframeDelta.X) != 0) sb.append(",\"x\":").append(qfmt.format(ei.pos.x));
+                if ((mask & KeyframeDelta.Y) != 0) sb.append(",\"y\":").append(qfmt.format(ei.pos.y));
+                if ((mask & KeyframeDelta.W) != 0) sb.append(",\"w\":").append(qfmt.format(ei.w));
+                if ((mask & KeyframeDelta.H) != 0) sb.append(",\"h\":").append(qfmt.format(ei.h));
+                if ((mask & KeyframeDelta.COLOR) != 0) {
+                    sb.append(',');
+                    appendColor(ei);
+                }
+                if ((mask & KeyframeDelta.HP) != 0) sb.append(",\"hp\":").append(qfmt.format(ei.hp));
+                if ((mask & KeyframeDelta.MAX_HP) != 0) sb.append(",\"maxHp\":").append(qfmt.format(ei.maxHp));
+                if ((mask & KeyframeDelta.FLAGS) != 0) sb.append(",\"v\":").append(ei.v).append(",\"inv\":").append(ei.inv);
+            }
+            sb.append('}');
+            first = false;
+        }
+
+        sb.append("],\"removed\":[");
+        first = true;
+        for (String id : previous.entities.keySet()) {
+            if (keyframe.entities.containsKey(id)) continue;
+            if (!first) sb.append(',');
+            sb.append('"').append(id).append('"');
+            first = false;
+        }
+        sb.append("]}");
+    }
+
+    private void appendGlobal(Keyframe.GlobalInfo global) {
+        sb.append(",\"global\":{")
+          .append("\"score\":").append(global.score).append(',')
+          .append("\"fcd\":").append(qfmt.format(global.fcd)).append(',')
+          .append("\"bcd\":").append(qfmt.format(global.bcd)).append(',')
+          .append("\"over\":").append(global.over)
+          .append("}");
+    }
+
+    private void appendEntity(Keyframe.EntityInfo ei) {
+        sb.append("\"id\":\"").append(ei.id).append("\",")
+          .append("\"x\":").append(qfmt.format(ei.pos.x)).append(',')
+          .append("\"y\":").append(qfmt.format(ei.pos.y));
+
+        if (!"CUSTOM".equals(ei.rt)) {
+            if (ei.v == 0) sb.append(",\"v\":0");
+            sb.append(',')
+              .append("\"rt\":\"").append(ei.rt).append("\",")
+              .append("\"w\":").append(qfmt.format(ei.w)).append(',')
+              .append("\"h\":").append(qfmt.format(ei.h)).append(',');
+            appendColor(ei);
+        } else {
+            sb.append(',').append("\"rt\":\"CUSTOM\"");
+        }
+
+        if (ei.maxHp >= 0) {
+            sb.append(",\"hp\":").append(qfmt.format(ei.hp))
+              .append(",\"maxHp\":").append(qfmt.format(ei.maxHp));
+            if (ei.inv == 1) sb.append(",\"inv\":1");
+        }
+    }
+
+    private void appendColor(Keyframe.EntityInfo ei) {
+        sb.append("\"color\":[")
+          .append(qfmt.format(ei.r)).append(',')
+          .append(qfmt.format(ei.g)).append(',')
+          .append(qfmt.format(ei.b)).append(',')
+          .append(qfmt.format(ei.a)).append(']');
+    }
+}
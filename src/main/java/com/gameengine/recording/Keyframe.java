@@ -0,0 +1,57 @@
+package com.gameengine.recording;
+
+import com.gameengine.math.Vector2;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 录制中的一个关键帧：某一时刻的全局状态和全部实体状态
+ */
+public class Keyframe {
+    public static class GlobalInfo {
+        public int score;
+        public float fcd;
+        public float bcd;
+        public boolean over;
+    }
+
+    public static class EntityInfo {
+        public String id;
+        public String name;
+        public Vector2 pos;
+        public String rt;
+        public float w, h;
+        public float r = 1, g = 1, b = 1, a = 1;
+        public float hp = -1;
+        public float maxHp = -1;
+        public int v = 1; // Default visible
+        public int inv = 0; // Default not invincible
+
+        /**
+         * 复制一份，位置向量也会复制
+         */
+        public EntityInfo copy() {
+            EntityInfo c = new EntityInfo();
+            c.id = id;
+            c.name = name;
+            c.pos = pos != null ? new Vector2(pos.x, pos.y) : null;
+            c.rt = rt;
+            c.w = w;
+            c.h = h;
+            c.r = r;
+            c.g = g;
+            c.b = b;
+            c.a = a;
+            c.hp = hp;
+            c.maxHp = maxHp;
+            c.v = v;
+            c.inv = inv;
+            return c;
+        }
+    }
+
+    public double t;
+    public GlobalInfo global;
+    public Map<String, EntityInfo> entities = new LinkedHashMap<>(); // 保持场景中的顺序
+}
@@ -0,0 +1,179 @@
+package com.gameengine.recording;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 边加载边读取的关键帧序列
+ *
+ * 加载线程按段写入解码结果，段可能乱序完成；只有从第一段开始连续完成的部分才对读取方可见，
+ * 因此读取方看到的始终是按时间排序、没有空洞的前缀。读取方（游戏线程）不加锁：
+ * 写入时先替换数组再更新 size，读取时先读 size 再读数组。
+ * 读取方把关键帧转存到别处后可以用 {@link #release(int)} 释放它们。
+ */
+public class KeyframeBuffer {
+    private final int totalSegments;
+    private final double startTime;
+    private final double endTime;
+    private final ParallelRecordingLoader.ProgressListener listener;
+
+    // 以下由 this 保护：已完成但前面还有空洞的段
+    private final List<List<Keyframe>> pending;
+    private final int[] pendingEnd;
+    private int nextSegment;
+    private int loaded;
+    private int released;
+
+    private volatile Keyframe[] frames = new Keyframe[256];
+    private volatile int size;
+    private volatile double loadedEndTime;
+    private volatile int loadedSegments;
+    private volatile boolean complete;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+
+    KeyframeBuffer(SeekableRecording recording, ParallelRecordingLoader.ProgressListener listener) {
+        this.totalSegments = recording.getSegmentCount();
+        this.startTime = recording.getStartTime();
+        this.endTime = recording.getEndTime();
+        this.loadedEndTime = startTime;
+        this.listener = listener;
+        this.pending = new ArrayList<>(totalSegments);
+        for (int i = 0; i < totalSegments; i++) {
+            pending.add(null);
+        }
+        this.pendingEnd = new int[totalSegments];
+        if (listener != null) {
+            listener.onProgress(0, totalSegments);
+        }
+    }
+
+    /**
+     * 已经可以读取的关键帧数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第 i 个关键帧，i 必须小于之前读到的 {@link #size()}
+     */
+    public Keyframe get(int i) {
+        return frames[i];
+    }
+
+    /**
+     * 释放下标小于 upTo 的关键帧，之后不能再 {@link #get(int)} 它们，{@link #toList()} 中对应位置为 null
+     */
+    public synchronized void release(int upTo) {
+        Keyframe[] f = frames;
+        int end = Math.min(upTo, size);
+        for (int i = released; i < end; i++) {
+            f[i] = null;
+        }
+        released = Math.max(released, end);
+    }
+
+    /**
+     * 录制开始时间，打开时从索引得到
+     */
+    public double getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * 整个录制的结束时间，加载完成之前就已知道
+     */
+    public double getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * 已读取部分最后一帧的时间，还没有帧时返回开始时间
+     */
+    public double getLoadedEndTime() {
+        return loadedEndTime;
+    }
+
+    public int getLoadedSegments() {
+        return loadedSegments;
+    }
+
+    public int getTotalSegments() {
+        return totalSegments;
+    }
+
+    /**
+     * 加载是否已经结束（成功、失败或取消）
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * 加载失败的原因，没有失败时为 null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * 放弃加载，尚未开始的段不再解码
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 拷贝出已读取的全部关键帧
+     */
+    public List<Keyframe> toList() {
+        int n = size;
+        return new ArrayList<>(Arrays.asList(frames).subList(0, n));
+    }
+
+    /**
+     * 写入 [from, to) 段的解码结果，并把连续完成的部分追加到可读前缀
+     */
+    synchronized void publish(int from, int to, List<Keyframe> keyframes) {
+        pending.set(from, keyframes);
+        pendingEnd[from] = to;
+        while (nextSegment < totalSegments && pending.get(nextSegment) != null) {
+            append(pending.get(nextSegment));
+            pending.set(nextSegment, null);
+            nextSegment = pendingEnd[nextSegment];
+        }
+        loaded += to - from;
+        loadedSegments = loaded;
+        if (listener != null) {
+            listener.onProgress(loaded, totalSegments);
+        }
+    }
+
+    void fail(Throwable cause) {
+        error = cause;
+    }
+
+    void finish() {
+        complete = true;
+    }
+
+    private void append(List<Keyframe> keyframes) {
+        int n = size;
+        Keyframe[] f = frames;
+        if (n + keyframes.size() > f.length) {
+            f = Arrays.copyOf(f, Math.max(f.length * 2, n + keyframes.size()));
+        }
+        for (Keyframe kf : keyframes) {
+            f[n++] = kf;
+        }
+        frames = f;
+        if (n > 0) loadedEndTime = f[n - 1].t;
+        size = n;
+    }
+}
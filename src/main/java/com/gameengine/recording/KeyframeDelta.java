@@ -0,0 +1,74 @@
+package com.gameengine.recording;
+
+/**
+ * 增量帧的字段比较
+ *
+ * 两次关键帧之间只记录量化后确实变化的字段。渲染类型、是否有渲染或生命组件变化时
+ * 整个实体按完整格式重写（FULL）。
+ */
+final class KeyframeDelta {
+    static final int X = 1;
+    static final int Y = 1 << 1;
+    static final int W = 1 << 2;
+    static final int H = 1 << 3;
+    static final int COLOR = 1 << 4;
+    static final int HP = 1 << 5;
+    static final int MAX_HP = 1 << 6;
+    static final int FLAGS = 1 << 7;
+    static final int FULL = 1 << 8;
+    static final int NEW = 1 << 9; // 实体首次出现，二进制格式中掩码后跟名称
+
+    private KeyframeDelta() {}
+
+    /**
+     * 比较同一实体前后两次的状态，返回变化字段的掩码，0 表示没有变化
+     * @param scale 定点数的缩放系数 10^小数位数
+     */
+    static int diff(Keyframe.EntityInfo prev, Keyframe.EntityInfo cur, float scale) {
+        boolean prevRender = !"CUSTOM".equals(prev.rt);
+        boolean curRender = !"CUSTOM".equals(cur.rt);
+        boolean prevHealth = prev.maxHp >= 0;
+        boolean curHealth = cur.maxHp >= 0;
+        if (!prev.rt.equals(cur.rt) || prevRender != curRender || prevHealth != curHealth) {
+            return FULL;
+        }
+
+        int mask = 0;
+        if (fixed(prev.pos.x, scale) != fixed(cur.pos.x, scale)) mask |= X;
+        if (fixed(prev.pos.y, scale) != fixed(cur.pos.y, scale)) mask |= Y;
+        if (curRender) {
+            if (fixed(prev.w, scale) != fixed(cur.w, scale)) mask |= W;
+            if (fixed(prev.h, scale) != fixed(cur.h, scale)) mask |= H;
+            if (channel(prev.r) != channel(cur.r) || channel(prev.g) != channel(cur.g)
+                    || channel(prev.b) != channel(cur.b) || channel(prev.a) != channel(cur.a)) {
+                mask |= COLOR;
+            }
+        }
+        if (curHealth) {
+            if (fixed(prev.hp, scale) != fixed(cur.hp, scale)) mask |= HP;
+            if (fixed(prev.maxHp, scale) != fixed(cur.maxHp, scale)) mask |= MAX_HP;
+        }
+        if (prev.v != cur.v || prev.inv != cur.inv) mask |= FLAGS;
+        return mask;
+    }
+
+    /**
+     * 全局状态是否变化（量化后比较）
+     */
+    static boolean globalChanged(Keyframe.GlobalInfo prev, Keyframe.GlobalInfo cur, float scale) {
+        if (prev == null || cur == null) return prev != cur;
+        return prev.score != cur.score || prev.over != cur.over
+                || fixed(prev.fcd, scale) != fixed(cur.fcd, scale)
+                || fixed(prev.bcd, scale) != fixed(cur.bcd, scale);
+    }
+
+    static long fixed(float value, float scale) {
+        return Math.round(value * scale);
+    }
+
+    static int channel(float value) {
+        if (value <= 0f) return 0;
+        if (value >= 1f) return 255;
+        return (int) (value * 255f + 0.5f);
+    }
+}
@@ -0,0 +1,82 @@
+package com.gameengine.recording;
+
+/**
+ * 带游标的关键帧时间线
+ *
+ * 游标记住上一次查询落在哪两个关键帧之间。播放时每帧时间只前进或后退一点，
+ * 游标向前或向后挪一两格就能找到新的位置，均摊 O(1)；跳转距离较远时改用二分查找。
+ * 正放、倒放和任意倍速都只是查询时间的变化方式不同，查找方式相同。
+ */
+public class KeyframeTimeline {
+    // 游标逐格移动的最大步数，超过后改用二分查找
+    private static final int MAX_STEPS = 8;
+
+    private final ColumnarTimeline frames;
+    private int cursor;
+
+    public KeyframeTimeline(ColumnarTimeline frames) {
+        this.frames = frames;
+    }
+
+    /**
+     * 把游标移到时刻 t：游标指向时间不晚于 t 的最后一帧（t 早于第一帧时为第一帧），
+     * {@link #next()} 是它的下一帧
+     * @return 游标位置，还没有可用的帧时返回 -1
+     */
+    public int seek(double t) {
+        int n = frames.size();
+        if (n == 0) {
+            cursor = 0;
+            return -1;
+        }
+        int i = Math.min(cursor, n - 1);
+        int steps = 0;
+        if (frames.getTime(i) <= t) {
+            while (i + 1 < n && frames.getTime(i + 1) <= t && steps++ < MAX_STEPS) i++;
+        } else {
+            while (i > 0 && frames.getTime(i) > t && steps++ < MAX_STEPS) i--;
+        }
+        if (steps > MAX_STEPS) {
+            i = floor(t, n);
+        }
+        cursor = i;
+        return i;
+    }
+
+    /**
+     * 游标的下一帧，游标已在最后一帧时返回游标位置
+     */
+    public int next() {
+        return cursor + 1 < frames.size() ? cursor + 1 : cursor;
+    }
+
+    /**
+     * 时刻 t 在游标帧和 {@link #next()} 之间的插值系数 [0, 1]
+     */
+    public double alpha(double t) {
+        int b = next();
+        if (b == cursor) return 0.0;
+        double ta = frames.getTime(cursor);
+        double tb = frames.getTime(b);
+        if (t <= ta) return 0.0;
+        return Math.min(1.0, (t - ta) / Math.max(1e-6, tb - ta));
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    private int floor(double t, int n) {
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (frames.getTime(mid) <= t) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,134 @@
+package com.gameengine.recording;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 并行加载录制
+ *
+ * 录制按时间索引切成段，每段从完整关键帧开始，可以独立解码。段被分给 ForkJoinPool 上的任务
+ * 并行解析，各段结果按段序号拼接，得到与 {@link RecordingLoader} 相同的按时间排序的关键帧列表。
+ * {@link #loadAsync(String)} 不等待解码完成，结果通过 {@link KeyframeBuffer} 逐步发布。
+ */
+public class ParallelRecordingLoader {
+    // 一个任务处理的段数；任务小一些，边加载边播放时第一批关键帧能更快出现
+    private static final int SEGMENTS_PER_TASK = 2;
+
+    /**
+     * 加载进度回调，在工作线程上调用
+     */
+    public interface ProgressListener {
+        void onProgress(int loadedSegments, int totalSegments);
+    }
+
+    private final RecordingStorage storage;
+    private final ForkJoinPool pool;
+
+    public ParallelRecordingLoader(RecordingStorage storage) {
+        this(storage, ForkJoinPool.commonPool());
+    }
+
+    public ParallelRecordingLoader(RecordingStorage storage, ForkJoinPool pool) {
+        this.storage = storage;
+        this.pool = pool;
+    }
+
+    /**
+     * 读取全部关键帧，按时间排序
+     * @param listener 进度回调，可以为 null
+     */
+    public List<Keyframe> load(String path, ProgressListener listener) throws IOException {
+        try (SeekableRecording recording = SeekableRecording.open(storage, path)) {
+            KeyframeBuffer buffer = new KeyframeBuffer(recording, listener);
+            if (recording.getSegmentCount() > 0) {
+                try {
+                    pool.invoke(new SegmentTask(recording, buffer, 0, recording.getSegmentCount()));
+                } catch (UncheckedIOException e) {
+                    throw unwrap(e);
+                }
+            }
+            return buffer.toList();
+        }
+    }
+
+    /**
+     * 在后台加载，打开录制后立即返回
+     *
+     * 解码从前往后推进，关键帧按时间顺序陆续出现在返回的缓冲中，调用方可以马上从头开始读取。
+     * 打开失败时直接抛出异常，之后的解码错误记录在 {@link KeyframeBuffer#getError()} 中。
+     */
+    public KeyframeBuffer loadAsync(String path) throws IOException {
+        SeekableRecording recording = SeekableRecording.open(storage, path);
+        KeyframeBuffer buffer = new KeyframeBuffer(recording, null);
+        pool.execute(() -> {
+            try {
+                if (recording.getSegmentCount() > 0) {
+                    new SegmentTask(recording, buffer, 0, recording.getSegmentCount()).invoke();
+                }
+            } catch (UncheckedIOException e) {
+                buffer.fail(unwrap(e));
+            } catch (RuntimeException e) {
+                buffer.fail(e);
+            } finally {
+                recording.close();
+                buffer.finish();
+            }
+        });
+        return buffer;
+    }
+
+    /**
+     * 线程池可能重新包装异常，取出最初的 IOException
+     */
+    private static IOException unwrap(UncheckedIOException e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && !(cause instanceof IOException)) {
+            cause = cause.getCause();
+        }
+        return cause instanceof IOException ? (IOException) cause : new IOException(e);
+    }
+
+    /**
+     * 解码 [from, to) 段，段数超过 SEGMENTS_PER_TASK 时对半拆分
+     *
+     * 左半由当前线程直接执行、右半留给其它线程窃取，所以最前面的段总是最先完成，
+     * 边加载边播放时可读前缀能尽早增长。
+     */
+    private static final class SegmentTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SeekableRecording recording;
+        private final KeyframeBuffer buffer;
+        private final int from;
+        private final int to;
+
+        SegmentTask(SeekableRecording recording, KeyframeBuffer buffer, int from, int to) {
+            this.recording = recording;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (buffer.isCancelled()) return;
+            if (to - from > SEGMENTS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SegmentTask(recording, buffer, from, mid),
+                          new SegmentTask(recording, buffer, mid, to));
+                return;
+            }
+            List<Keyframe> part = new ArrayList<>();
+            try {
+                recording.decodeSegments(from, to, part);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.publish(from, to, part);
+        }
+    }
+}
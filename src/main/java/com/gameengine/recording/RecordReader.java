@@ -0,0 +1,149 @@
+package com.gameengine.recording;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按行读取 JSONL 录制的记录
+ *
+ * 直接在（通常是内存映射的）字节缓冲上工作，每条记录以不拷贝的字节切片返回，
+ * 只有真正需要解析的行才解码成字符串，因此打开和遍历大文件时内存占用不随文件增长。
+ */
+public final class RecordReader {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final ByteBuffer data;
+    private int position;
+    private int recordOffset;
+
+    public RecordReader(ByteBuffer data) {
+        this.data = data.duplicate();
+        this.position = data.position();
+    }
+
+    /**
+     * 下一条记录（不含换行符）的切片，没有更多记录时返回 null
+     */
+    public ByteBuffer next() {
+        int limit = data.limit();
+        while (position < limit) {
+            int start = position;
+            int end = start;
+            while (end < limit && data.get(end) != '\n') end++;
+            position = end < limit ? end + 1 : end;
+            int contentEnd = end > start && data.get(end - 1) == '\r' ? end - 1 : end;
+            if (contentEnd > start) {
+                recordOffset = start;
+                return slice(data, start, contentEnd - start);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 上一次返回的记录在数据中的偏移
+     */
+    public int getRecordOffset() {
+        return recordOffset;
+    }
+
+    /**
+     * 切片中是否包含指定字节序列
+     */
+    public static boolean contains(ByteBuffer slice, byte[] pattern) {
+        return indexOf(slice, pattern, slice.position()) >= 0;
+    }
+
+    /**
+     * 读取紧跟在 key（如 "t": 的字节）之后的数字，找不到时返回 fallback
+     */
+    public static double number(ByteBuffer slice, byte[] key, double fallback) {
+        int i = indexOf(slice, key, slice.position());
+        if (i < 0) return fallback;
+        int limit = slice.limit();
+        int start = i + key.length;
+        while (start < limit && slice.get(start) == ' ') start++;
+        int end = start;
+        while (end < limit && "+-.0123456789eE".indexOf(slice.get(end)) >= 0) end++;
+        return parseNumber(slice, start, end, fallback);
+    }
+
+    /**
+     * 解析 [start, end) 中的十进制数字，不是合法数字时返回 fallback
+     */
+    static double parseNumber(ByteBuffer data, int start, int end, double fallback) {
+        if (end <= start) return fallback;
+
+        // 常见的短小数直接累加，其余（指数形式、超长数字）交给 Double.parseDouble
+        int p = start;
+        boolean negative = data.get(p) == '-';
+        if (negative) p++;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; p < end; p++) {
+            byte b = data.get(p);
+            if (b >= '0' && b <= '9' && digits < 15) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (p == end && digits > 0) {
+            double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(decode(slice(data, start, end - start)));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * 把切片按 UTF-8 解码成字符串
+     */
+    public static String decode(ByteBuffer slice) {
+        if (slice.hasArray()) {
+            return new String(slice.array(), slice.arrayOffset() + slice.position(), slice.remaining(), StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[slice.remaining()];
+        slice.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 字符串的 ASCII 字节，用于构造匹配模式
+     */
+    public static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 不拷贝数据的子区间 [offset, offset + length)
+     */
+    static ByteBuffer slice(ByteBuffer data, int offset, int length) {
+        ByteBuffer dup = data.duplicate();
+        dup.limit(offset + length);
+        dup.position(offset);
+        return dup.slice();
+    }
+
+    private static int indexOf(ByteBuffer slice, byte[] pattern, int from) {
+        int last = slice.limit() - pattern.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (slice.get(i + j) != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -5,9 +5,13 @@ public class RecordingConfig {
     public float keyframeIntervalSec = 0.05f; // Increased frequency for smoother replay
     public int sampleFps = 30;
     public int quantizeDecimals = 2;
+    public int fullKeyframeEvery = 20; // 每 20 个关键帧一个完整帧，其余为增量帧
     public int queueCapacity = 4096;
+    public RecordingFormat format;
+    public boolean blockWhenFull = false; // 队列满时等待写线程而不是丢弃，用于无窗口全速运行
 
     public RecordingConfig(String outputPath) {
         this.outputPath = outputPath;
+        this.format = RecordingFormat.forPath(outputPath);
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.gameengine.recording;
+
+import java.io.IOException;
+
+/**
+ * 录制编码器，在写线程上把录制事件编码后写入 {@link RecordingStorage}
+ */
+public interface RecordingEncoder {
+    void writeHeader(int width, int height) throws IOException;
+    void writeInput(double t, int[] keys) throws IOException;
+    void writeKeyframe(Keyframe keyframe) throws IOException;
+
+    /**
+     * 录制正常结束时调用，写出时间索引
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,31 @@
+package com.gameengine.recording;
+
+/**
+ * 录制文件格式
+ */
+public enum RecordingFormat {
+    /** 每行一个 JSON 对象 */
+    JSONL(".jsonl"),
+    /** 紧凑二进制格式，见 {@link BinaryRecordingEncoder} */
+    BINARY(".rec");
+
+    private final String extension;
+
+    RecordingFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 按文件扩展名判断格式，无法识别时按 JSONL 处理
+     */
+    public static RecordingFormat forPath(String path) {
+        if (path != null && path.endsWith(BINARY.extension)) {
+            return BINARY;
+        }
+        return JSONL;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gameengine.recording;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 录制的时间索引：每个完整关键帧的时间和它在文件中的字节偏移
+ */
+final class RecordingIndex {
+    final double[] times;
+    final long[] offsets;
+    final int count;
+    final double endTime;
+    final long endOffset;
+    // 二进制录制的完整字符串表，JSONL 为 null
+    final List<String> strings;
+
+    /**
+     * @param endOffset 最后一段数据的结束位置（索引记录或文件末尾）
+     */
+    RecordingIndex(double[] times, long[] offsets, int count, double endTime, long endOffset, List<String> strings) {
+        this.times = times;
+        this.offsets = offsets;
+        this.count = count;
+        this.endTime = endTime;
+        this.endOffset = endOffset;
+        this.strings = strings;
+    }
+
+    /**
+     * 时间不晚于 t 的最后一个完整帧，t 早于第一个完整帧时返回 0
+     */
+    int find(double t) {
+        int i = Arrays.binarySearch(times, 0, count, t);
+        if (i < 0) i = -i - 2;
+        return Math.max(0, Math.min(i, count - 1));
+    }
+
+    /**
+     * 第 i 段（从第 i 个完整帧到下一个完整帧之前）的结束位置
+     */
+    long segmentEnd(int i) {
+        return i + 1 < count ? offsets[i + 1] : endOffset;
+    }
+}
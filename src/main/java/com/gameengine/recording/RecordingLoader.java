@@ -0,0 +1,67 @@
+package com.gameengine.recording;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 加载录制文件中的关键帧，按文件头自动识别 JSONL 和二进制格式
+ */
+public class RecordingLoader {
+    private static final byte[] KEYFRAME_TYPE = RecordReader.ascii("\"type\":\"keyframe\"");
+    private static final byte[] DELTA_TYPE = RecordReader.ascii("\"type\":\"delta\"");
+
+    private final RecordingStorage storage;
+
+    public RecordingLoader(RecordingStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * 读取全部关键帧，按时间排序
+     */
+    public List<Keyframe> load(String path) throws IOException {
+        ByteBuffer data = storage.map(path);
+        byte[] head = new byte[Math.min(data.limit(), 4)];
+        data.duplicate().get(head);
+
+        List<Keyframe> keyframes;
+        if (BinaryRecordingDecoder.isBinary(head, head.length)) {
+            keyframes = new BinaryRecordingDecoder(data).readAll();
+        } else {
+            keyframes = loadJsonl(data);
+        }
+        keyframes.sort(Comparator.comparingDouble(k -> k.t));
+        return keyframes;
+    }
+
+    private List<Keyframe> loadJsonl(ByteBuffer data) {
+        List<Keyframe> keyframes = new ArrayList<>();
+        Keyframe current = null;
+        JsonlKeyframeParser parser = new JsonlKeyframeParser();
+        RecordReader reader = new RecordReader(data);
+        ByteBuffer record;
+        // 先按字节判断记录类型，头部、输入和索引行不解码
+        while ((record = reader.next()) != null) {
+            if (RecordReader.contains(record, KEYFRAME_TYPE)) {
+                current = parser.parse(record, null);
+                keyframes.add(current);
+            } else if (current != null && RecordReader.contains(record, DELTA_TYPE)) {
+                current = parser.parse(record, current);
+                keyframes.add(current);
+            }
+        }
+        return keyframes;
+    }
+
+    /**
+     * 解析一行 JSONL 关键帧或增量帧
+     * @param base 增量帧所基于的上一帧，解析完整关键帧时为 null
+     */
+    public static Keyframe parseKeyframe(String line, Keyframe base) {
+        return new JsonlKeyframeParser().parse(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), base);
+    }
+}
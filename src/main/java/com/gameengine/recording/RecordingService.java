@@ -4,36 +4,51 @@ import com.gameengine.components.HealthComponent;
 import com.gameengine.components.TransformComponent;
 import com.gameengine.core.GameObject;
 import com.gameengine.input.InputManager;
+import com.gameengine.math.Vector2;
 import com.gameengine.scene.Scene;
 
 import java.io.IOException;
-import java.text.DecimalFormat;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
+/**
+ * 录制服务
+ *
+ * 游戏线程只在关键帧时刻把场景状态拷贝成 {@link Keyframe} 放入队列，
+ * 编码（JSONL 或二进制）、增量比较和写文件都在写线程上完成。
+ */
 public class RecordingService {
     private final RecordingConfig config;
-    private final BlockingQueue<String> lineQueue;
+    private final BlockingQueue<Object> eventQueue;
     private volatile boolean recording;
     private Thread writerThread;
     private RecordingStorage storage = new FileRecordingStorage();
     private double elapsed;
     private double keyframeElapsed;
     private final double warmupSec = 0.1;
-    private final DecimalFormat qfmt;
     private Scene lastScene;
 
+    /**
+     * 输入事件
+     */
+    private static final class InputEvent {
+        final double t;
+        final int[] keys;
+
+        InputEvent(double t, int[] keys) {
+            this.t = t;
+            this.keys = keys;
+        }
+    }
+
     public RecordingService(RecordingConfig config) {
         this.config = config;
-        this.lineQueue = new ArrayBlockingQueue<>(config.queueCapacity);
+        this.eventQueue = new ArrayBlockingQueue<>(config.queueCapacity);
         this.recording = false;
         this.elapsed = 0.0;
         this.keyframeElapsed = 0.0;
-        this.qfmt = new DecimalFormat();
-        this.qfmt.setMaximumFractionDigits(Math.max(0, config.quantizeDecimals));
-        this.qfmt.setGroupingUsed(false);
     }
 
     public boolean isRecording() {
@@ -43,16 +58,26 @@ public class RecordingService {
     public void start(Scene scene, int width, int height) throws IOException {
         if (recording) return;
         storage.openWriter(config.outputPath);
+        RecordingEncoder encoder = config.format == RecordingFormat.BINARY
+                ? new BinaryRecordingEncoder(storage, config.quantizeDecimals, config.fullKeyframeEvery)
+                : new JsonlRecordingEncoder(storage, config.quantizeDecimals, config.fullKeyframeEvery);
         writerThread = new Thread(() -> {
             try {
-                while (recording || !lineQueue.isEmpty()) {
-                    String s = lineQueue.poll();
-                    if (s == null) {
+                encoder.writeHeader(width, height);
+                while (recording || !eventQueue.isEmpty()) {
+                    Object event = eventQueue.poll();
+                    if (event == null) {
                         try { Thread.sleep(2); } catch (InterruptedException ignored) {}
                         continue;
                     }
-                    storage.writeLine(s);
+                    if (event instanceof Keyframe) {
+                        encoder.writeKeyframe((Keyframe) event);
+                    } else {
+                        InputEvent input = (InputEvent) event;
+                        encoder.writeInput(input.t, input.keys);
+                    }
                 }
+                encoder.finish();
             } catch (IOException e) {
                 e.printStackTrace();
             } finally {
@@ -62,7 +87,6 @@ public class RecordingService {
         recording = true;
         writerThread.start();
 
-        enqueue("{\"type\":\"header\",\"version\":1,\"w\":" + width + ",\"h\":" + height + "}");
         keyframeElapsed = 0.0;
     }
 
@@ -85,16 +109,12 @@ public class RecordingService {
 
         Set<Integer> just = input.getJustPressedKeysSnapshot();
         if (!just.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("{\"type\":\"input\",\"t\":").append(qfmt.format(elapsed)).append(",\"keys\":[");
-            boolean first = true;
+            int[] keys = new int[just.size()];
+            int i = 0;
             for (Integer k : just) {
-                if (!first) sb.append(',');
-                sb.append(k);
-                first = false;
+                keys[i++] = k;
             }
-            sb.append("]}");
-            enqueue(sb.toString());
+            enqueue(new InputEvent(elapsed, keys));
         }
 
         if (elapsed >= warmupSec && keyframeElapsed >= config.keyframeIntervalSec) {
@@ -105,8 +125,8 @@ public class RecordingService {
     }
 
     private boolean writeKeyframe(Scene scene) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\"type\":\"keyframe\",\"t\":").append(qfmt.format(elapsed));
+        Keyframe kf = new Keyframe();
+        kf.t = elapsed;
 
         // Global State Reflection
         try {
@@ -116,78 +136,71 @@ public class RecordingService {
                 java.lang.reflect.Field fFCD = clz.getDeclaredField("fireballCooldown"); fFCD.setAccessible(true);
                 java.lang.reflect.Field fBCD = clz.getDeclaredField("bombCooldown"); fBCD.setAccessible(true);
                 java.lang.reflect.Field fGO = clz.getDeclaredField("gameOver"); fGO.setAccessible(true);
-                
-                sb.append(",\"global\":{")
-                  .append("\"score\":").append(fScore.getInt(scene)).append(',')
-                  .append("\"fcd\":").append(qfmt.format(fFCD.getFloat(scene))).append(',')
-                  .append("\"bcd\":").append(qfmt.format(fBCD.getFloat(scene))).append(',')
-                  .append("\"over\":").append(fGO.getBoolean(scene))
-                  .append("}");
+
+                Keyframe.GlobalInfo global = new Keyframe.GlobalInfo();
+                global.score = fScore.getInt(scene);
+                global.fcd = fFCD.getFloat(scene);
+                global.bcd = fBCD.getFloat(scene);
+                global.over = fGO.getBoolean(scene);
+                kf.global = global;
             }
         } catch (Exception ignored) {}
 
-        sb.append(",\"entities\":[");
         List<GameObject> objs = scene.getGameObjects();
-        boolean first = true;
-        int count = 0;
         for (GameObject obj : objs) {
             if (!obj.isActive()) continue;
 
             TransformComponent tc = obj.getComponent(TransformComponent.class);
             if (tc == null) continue;
-            
-            float x = tc.getPosition().x;
-            float y = tc.getPosition().y;
-            if (!first) sb.append(',');
-            
-            // Use Name + UUID to ensure uniqueness AND retain type info
-            String uniqueId = obj.getName() + "_" + obj.getUuid();
 
-            sb.append('{')
-              .append("\"id\":\"").append(uniqueId).append("\",")
-              .append("\"x\":").append(qfmt.format(x)).append(',')
-              .append("\"y\":").append(qfmt.format(y));
+            Keyframe.EntityInfo ei = new Keyframe.EntityInfo();
+            // Use Name + UUID to ensure uniqueness AND retain type info
+            ei.name = obj.getName();
+            ei.id = obj.getRecordId();
+            ei.pos = new Vector2(tc.getPosition().x, tc.getPosition().y);
 
             com.gameengine.components.RenderComponent rc = obj.getComponent(com.gameengine.components.RenderComponent.class);
             if (rc != null) {
-                if (!rc.isVisible()) sb.append(",\"v\":0");
-                com.gameengine.components.RenderComponent.RenderType rt = rc.getRenderType();
+                if (!rc.isVisible()) ei.v = 0;
                 com.gameengine.math.Vector2 sz = rc.getSize();
                 com.gameengine.components.RenderComponent.Color col = rc.getColor();
-                sb.append(',')
-                  .append("\"rt\":\"").append(rt.name()).append("\",")
-                  .append("\"w\":").append(qfmt.format(sz.x)).append(',')
-                  .append("\"h\":").append(qfmt.format(sz.y)).append(',')
-                  .append("\"color\":[")
-                  .append(qfmt.format(col.r)).append(',')
-                  .append(qfmt.format(col.g)).append(',')
-                  .append(qfmt.format(col.b)).append(',')
-                  .append(qfmt.format(col.a)).append(']');
+                ei.rt = rc.getRenderType().name();
+                ei.w = sz.x;
+                ei.h = sz.y;
+                ei.r = col.r;
+                ei.g = col.g;
+                ei.b = col.b;
+                ei.a = col.a;
             } else {
-                sb.append(',').append("\"rt\":\"CUSTOM\"");
+                ei.rt = "CUSTOM";
             }
-            
+
             // Record Health
             HealthComponent hc = obj.getComponent(HealthComponent.class);
             if (hc != null) {
-                sb.append(",\"hp\":").append(qfmt.format(hc.currentHealth))
-                  .append(",\"maxHp\":").append(qfmt.format(hc.maxHealth));
-                if (hc.isInvincible) sb.append(",\"inv\":1");
+                ei.hp = hc.currentHealth;
+                ei.maxHp = hc.maxHealth;
+                if (hc.isInvincible) ei.inv = 1;
             }
 
-            sb.append('}');
-            first = false;
-            count++;
+            kf.entities.put(ei.id, ei);
         }
-        sb.append("]}");
-        if (count == 0) return false;
-        enqueue(sb.toString());
+        if (kf.entities.isEmpty()) return false;
+        enqueue(kf);
         return true;
     }
 
-    private void enqueue(String line) {
-        if (!lineQueue.offer(line)) {
+    private void enqueue(Object event) {
+        if (config.blockWhenFull) {
+            try {
+                eventQueue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        if (!eventQueue.offer(event)) {
             // Drop if full
         }
     }
-}
\ No newline at end of file
+}
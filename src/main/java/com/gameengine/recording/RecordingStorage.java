@@ -2,13 +2,21 @@ package com.gameengine.recording;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public interface RecordingStorage {
     void openWriter(String path) throws IOException;
     void writeLine(String line) throws IOException;
+    void writeBytes(byte[] data, int offset, int length) throws IOException;
     void closeWriter();
 
     Iterable<String> readLines(String path) throws IOException;
+    InputStream openInput(String path) throws IOException;
+    /**
+     * 把整个文件只读映射到内存，映射建立后与文件句柄无关
+     */
+    ByteBuffer map(String path) throws IOException;
     List<File> listRecordings();
 }
@@ -0,0 +1,311 @@
+package com.gameengine.recording;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可随机定位的录制
+ *
+ * 打开时只读取文件末尾的时间索引，录制被切成若干段：每段从一个完整关键帧开始，
+ * 到下一个完整关键帧之前结束。定位到某一时刻时只读取并解码所在的那一段，
+ * 最近用过的几段保留在缓存中，顺序播放时不会重复解码。
+ * 没有索引的录制（未正常结束）在打开时顺序扫描一遍来建立索引。
+ *
+ * 文件以内存映射方式打开，段数据是映射缓冲上的切片，打开大文件不需要把内容读进堆内存。
+ */
+public class SeekableRecording implements Closeable {
+    private static final int CACHED_SEGMENTS = 4;
+    private static final byte[] KEYFRAME_TYPE = RecordReader.ascii("\"type\":\"keyframe\"");
+    private static final byte[] DELTA_TYPE = RecordReader.ascii("\"type\":\"delta\"");
+    private static final byte[] TIME_KEY = RecordReader.ascii("\"t\":");
+    private static final byte[] OFFSET_KEY = RecordReader.ascii("\"offset\":");
+    private static final byte[] END = RecordReader.ascii("end");
+    private static final byte[] KEYFRAMES = RecordReader.ascii("keyframes");
+
+    private final ByteBuffer data;
+    private final RecordingFormat format;
+    private final RecordingIndex index;
+    private final int decimals;
+    private final Map<Integer, List<Keyframe>> cache;
+    private final JsonlKeyframeParser parser = new JsonlKeyframeParser();
+
+    private SeekableRecording(ByteBuffer data, RecordingFormat format, RecordingIndex index, int decimals) {
+        this.data = data;
+        this.format = format;
+        this.index = index;
+        this.decimals = decimals;
+        this.cache = new LinkedHashMap<Integer, List<Keyframe>>(CACHED_SEGMENTS * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Keyframe>> eldest) {
+                return size() > CACHED_SEGMENTS;
+            }
+        };
+    }
+
+    /**
+     * 打开录制文件，按文件头识别格式
+     */
+    public static SeekableRecording open(RecordingStorage storage, String path) throws IOException {
+        ByteBuffer data = storage.map(path);
+        byte[] magic = new byte[Math.min(data.limit(), 4)];
+        data.duplicate().get(magic);
+        if (BinaryRecordingDecoder.isBinary(magic, magic.length)) {
+            return openBinary(data);
+        }
+        return new SeekableRecording(data, RecordingFormat.JSONL, readJsonlIndex(data), 0);
+    }
+
+    public RecordingFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * 第一个完整关键帧的时间
+     */
+    public double getStartTime() {
+        return index.count > 0 ? index.times[0] : 0.0;
+    }
+
+    /**
+     * 最后一个关键帧的时间
+     */
+    public double getEndTime() {
+        return index.endTime;
+    }
+
+    public int getSegmentCount() {
+        return index.count;
+    }
+
+    /**
+     * 第 i 段开头完整关键帧的时间
+     */
+    public double getSegmentTime(int i) {
+        return index.times[i];
+    }
+
+    /**
+     * 包含时刻 t 的段
+     */
+    public int findSegment(double t) {
+        return index.find(t);
+    }
+
+    /**
+     * 读取并解码第 i 段：开头的完整关键帧及其后的增量帧，按时间排列
+     */
+    public List<Keyframe> readSegment(int i) throws IOException {
+        if (i < 0 || i >= index.count) {
+            throw new IndexOutOfBoundsException("段序号越界: " + i);
+        }
+        List<Keyframe> segment = cache.get(i);
+        if (segment != null) {
+            return segment;
+        }
+
+        segment = decodeSegment(i, parser);
+        cache.put(i, segment);
+        return segment;
+    }
+
+    /**
+     * 解码第 from 到 to - 1 段，结果依次放入 out；不经过缓存，可以在多个线程上同时调用
+     */
+    public void decodeSegments(int from, int to, List<Keyframe> out) throws IOException {
+        if (from < 0 || to > index.count) {
+            throw new IndexOutOfBoundsException("段序号越界: " + from + ".." + to);
+        }
+        JsonlKeyframeParser segmentParser = format == RecordingFormat.JSONL ? new JsonlKeyframeParser() : null;
+        for (int i = from; i < to; i++) {
+            out.addAll(decodeSegment(i, segmentParser));
+        }
+    }
+
+    /**
+     * 时刻 t 或之前最近的关键帧；t 早于录制开始时返回第一帧，录制为空时返回 null
+     */
+    public Keyframe seek(double t) throws IOException {
+        if (index.count == 0) return null;
+        List<Keyframe> segment = readSegment(findSegment(t));
+        if (segment.isEmpty()) return null;
+        return segment.get(floor(segment, t));
+    }
+
+    /**
+     * 段内时间不晚于 t 的最后一帧的下标，t 早于第一帧时返回 0
+     */
+    public static int floor(List<Keyframe> segment, double t) {
+        int lo = 0;
+        int hi = segment.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (segment.get(mid).t <= t) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public void close() {
+        // 映射在缓冲被回收时释放，这里只丢弃已解码的段
+        cache.clear();
+    }
+
+    private static SeekableRecording openBinary(ByteBuffer data) throws IOException {
+        int size = data.limit();
+        int version = size > 4 ? data.get(4) & 0xFF : -1;
+        if (version != BinaryRecordingEncoder.VERSION) {
+            throw new IOException("不支持的录制版本: " + version);
+        }
+        int decimals = size > 5 ? data.get(5) & 0xFF : 0;
+
+        if (size >= BinaryRecordingEncoder.FOOTER_SIZE) {
+            int footer = size - BinaryRecordingEncoder.FOOTER_SIZE;
+            boolean indexed = true;
+            for (int i = 0; i < BinaryRecordingEncoder.INDEX_MAGIC.length; i++) {
+                if (data.get(footer + 8 + i) != BinaryRecordingEncoder.INDEX_MAGIC[i]) indexed = false;
+            }
+            long indexOffset = data.getLong(footer);
+            if (indexed && indexOffset > 0 && indexOffset < footer) {
+                ByteBuffer record = RecordReader.slice(data, (int) indexOffset, (int) (footer - indexOffset));
+                RecordingIndex index = BinaryRecordingDecoder.readIndex(record, indexOffset);
+                return new SeekableRecording(data, RecordingFormat.BINARY, index, decimals);
+            }
+        }
+
+        // 没有索引：顺序扫描一遍，记下每个完整帧的位置
+        BinaryRecordingDecoder decoder = new BinaryRecordingDecoder(data.duplicate());
+        IndexBuilder builder = new IndexBuilder();
+        Keyframe kf;
+        while ((kf = decoder.nextKeyframe()) != null) {
+            if (decoder.isLastFull()) {
+                builder.add(kf.t, decoder.getLastRecordOffset());
+            }
+            builder.endTime = kf.t;
+        }
+        RecordingIndex index = builder.build(size, new ArrayList<>(decoder.getStrings()));
+        return new SeekableRecording(data, RecordingFormat.BINARY, index, decimals);
+    }
+
+    private static RecordingIndex readJsonlIndex(ByteBuffer data) throws IOException {
+        // 最后一行是 {"type":"index_offset","offset":N}
+        int size = data.limit();
+        int tailLength = Math.min(size, 128);
+        ByteBuffer tailBytes = RecordReader.slice(data, size - tailLength, tailLength);
+        String tail = RecordReader.decode(tailBytes);
+        int marker = tail.lastIndexOf("\"type\":\"index_offset\"");
+        if (marker >= 0) {
+            long indexOffset = (long) RecordReader.number(tailBytes, OFFSET_KEY, -1);
+            int lineStart = tail.lastIndexOf('\n', marker) + 1;
+            long indexEnd = size - tailLength + lineStart;
+            if (indexOffset > 0 && indexOffset < indexEnd) {
+                ByteBuffer line = RecordReader.slice(data, (int) indexOffset, (int) (indexEnd - indexOffset));
+                return parseJsonlIndex(line, indexOffset);
+            }
+        }
+
+        // 没有索引：顺序扫描每一行，只看类型和时间，不解码整行
+        RecordReader reader = new RecordReader(data);
+        IndexBuilder builder = new IndexBuilder();
+        ByteBuffer record;
+        while ((record = reader.next()) != null) {
+            boolean full = RecordReader.contains(record, KEYFRAME_TYPE);
+            if (!full && !RecordReader.contains(record, DELTA_TYPE)) continue;
+            double t = RecordReader.number(record, TIME_KEY, 0.0);
+            if (full) {
+                builder.add(t, reader.getRecordOffset());
+            }
+            builder.endTime = t;
+        }
+        return builder.build(size, null);
+    }
+
+    private static RecordingIndex parseJsonlIndex(ByteBuffer line, long indexOffset) throws IOException {
+        // {"type":"index","end":T,"keyframes":[[t,offset],[t,offset],...]}
+        JsonTokenizer json = new JsonTokenizer(line);
+        IndexBuilder builder = new IndexBuilder();
+        boolean found = false;
+        if (json.next() == JsonTokenizer.Token.BEGIN_OBJECT) {
+            while (json.next() == JsonTokenizer.Token.NAME) {
+                if (json.nameIs(END)) {
+                    json.next();
+                    builder.endTime = json.numberValue(0.0);
+                } else if (json.nameIs(KEYFRAMES)) {
+                    found = json.next() == JsonTokenizer.Token.BEGIN_ARRAY;
+                    while (found && json.next() == JsonTokenizer.Token.BEGIN_ARRAY) {
+                        json.next();
+                        double t = json.numberValue(0.0);
+                        json.next();
+                        builder.add(t, (long) json.numberValue(0.0));
+                        json.next(); // END_ARRAY
+                    }
+                } else {
+                    json.skipValue(json.next());
+                }
+            }
+        }
+        if (!found) {
+            throw new IOException("录制索引已损坏");
+        }
+        return builder.build(indexOffset, null);
+    }
+
+    private List<Keyframe> decodeSegment(int i, JsonlKeyframeParser parser) throws IOException {
+        long start = index.offsets[i];
+        ByteBuffer bytes = RecordReader.slice(data, (int) start, (int) (index.segmentEnd(i) - start));
+        if (format == RecordingFormat.BINARY) {
+            return new BinaryRecordingDecoder(bytes, decimals, index.strings).readAll();
+        }
+        return parseJsonlSegment(bytes, parser);
+    }
+
+    private static List<Keyframe> parseJsonlSegment(ByteBuffer bytes, JsonlKeyframeParser parser) {
+        List<Keyframe> segment = new ArrayList<>();
+        Keyframe current = null;
+        RecordReader reader = new RecordReader(bytes);
+        ByteBuffer record;
+        while ((record = reader.next()) != null) {
+            if (RecordReader.contains(record, KEYFRAME_TYPE)) {
+                current = parser.parse(record, null);
+                segment.add(current);
+            } else if (current != null && RecordReader.contains(record, DELTA_TYPE)) {
+                current = parser.parse(record, current);
+                segment.add(current);
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * 扫描时累积索引条目
+     */
+    private static final class IndexBuilder {
+        private double[] times = new double[64];
+        private long[] offsets = new long[64];
+        private int count;
+        double endTime;
+
+        void add(double t, long offset) {
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            times[count] = t;
+            offsets[count] = offset;
+            count++;
+        }
+
+        RecordingIndex build(long endOffset, List<String> strings) {
+            return new RecordingIndex(times, offsets, count, endTime, endOffset, strings);
+        }
+    }
+}
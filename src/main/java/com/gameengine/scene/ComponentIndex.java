@@ -0,0 +1,85 @@
+package com.gameengine.scene;
+
+import com.gameengine.core.Archetype;
+import com.gameengine.core.ArchetypeStorage;
+import com.gameengine.core.Component;
+import com.gameengine.core.ComponentType;
+import com.gameengine.core.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按组件类型维护的增量索引，随实体进出原型存储而更新
+ *
+ * 每种组件类型对应一个桶，保存拥有该类型组件的对象及对应组件，
+ * 两个列表下标一一对应，查询直接返回桶上的只读视图。
+ * 对象在各桶中的下标记在 GameObject 上（不装箱），移除时用最后一个元素填补空位，所以桶内顺序不稳定：
+ * 移除对象或给场景中的对象增删组件（迁移原型）都会改变其它对象的顺序。
+ */
+final class ComponentIndex implements ArchetypeStorage.Listener {
+    private final Bucket[] buckets = new Bucket[ComponentType.MAX_TYPES];
+
+    private static final class Bucket {
+        final List<GameObject> owners = new ArrayList<>();
+        final List<Component<?>> components = new ArrayList<>();
+        final ListView<GameObject> ownersView = new ListView<>(owners);
+        final ListView<Object> componentsView = new ListView<>(components);
+    }
+
+    @Override
+    public void onEntityAdded(GameObject obj, Archetype archetype, int row) {
+        for (int c = 0; c < archetype.columnCount(); c++) {
+            int typeId = archetype.columnTypeId(c);
+            Bucket bucket = bucket(typeId);
+            obj.setIndexSlot(typeId, bucket.owners.size());
+            bucket.owners.add(obj);
+            bucket.components.add(archetype.get(c, row));
+        }
+    }
+
+    @Override
+    public void onEntityRemoved(GameObject obj, Archetype archetype, int row) {
+        for (int c = 0; c < archetype.columnCount(); c++) {
+            int typeId = archetype.columnTypeId(c);
+            int index = obj.getIndexSlot(typeId);
+            if (index < 0) continue;
+            obj.setIndexSlot(typeId, -1);
+            Bucket bucket = buckets[typeId];
+            int last = bucket.owners.size() - 1;
+            if (index != last) {
+                GameObject moved = bucket.owners.get(last);
+                bucket.owners.set(index, moved);
+                bucket.components.set(index, bucket.components.get(last));
+                moved.setIndexSlot(typeId, index);
+            }
+            bucket.owners.remove(last);
+            bucket.components.remove(last);
+        }
+    }
+
+    /**
+     * 拥有指定类型组件的对象
+     */
+    ListView<GameObject> owners(Class<?> componentType) {
+        return bucket(ComponentType.of(componentType).getId()).ownersView;
+    }
+
+    /**
+     * 指定类型的组件
+     */
+    @SuppressWarnings("unchecked")
+    <T> ListView<T> components(Class<T> componentType) {
+        return (ListView<T>) (ListView<?>) bucket(ComponentType.of(componentType).getId()).componentsView;
+    }
+
+    // 查询时也创建空桶，保证提前拿到的视图之后能看到新加入的对象
+    private Bucket bucket(int typeId) {
+        Bucket bucket = buckets[typeId];
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets[typeId] = bucket;
+        }
+        return bucket;
+    }
+}
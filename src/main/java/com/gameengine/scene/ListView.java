@@ -0,0 +1,42 @@
+package com.gameengine.scene;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 只读的实时列表视图
+ *
+ * 直接读取场景内部维护的列表，不做拷贝；内容会随场景更新而变化，
+ * 调用方如需在场景更新之后继续持有数据，应自行拷贝。
+ * 迭代器沿用底层列表的快速失败检查：for-each 遍历期间底层列表增删元素会抛出
+ * ConcurrentModificationException；按下标遍历不做检查。
+ */
+public final class ListView<T> extends AbstractList<T> implements RandomAccess {
+    private final List<?> backing;
+    private final List<?> readOnly;
+
+    public ListView(List<?> backing) {
+        this.backing = backing;
+        this.readOnly = Collections.unmodifiableList(backing);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<T> iterator() {
+        return (Iterator<T>) readOnly.iterator();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) backing.get(index);
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+}
@@ -1,29 +1,51 @@
 package com.gameengine.scene;
 
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.ArchetypeStorage;
 import com.gameengine.core.GameObject;
 import com.gameengine.core.Component;
+import com.gameengine.core.Tag;
 // 移除具体游戏逻辑的import
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * 场景类，管理游戏对象和组件
+ *
+ * 对象列表采用写时快照：增删对象只在 update 开头统一生效，生效时发布一份新的
+ * 只读数组快照并递增 epoch。已发布的快照永远不会被修改，因此遍历期间
+ * 销毁或添加对象都是安全的，读取方也不需要再拷贝整个列表。
  */
 public class Scene {
+    private static final GameObject[] NO_OBJECTS = new GameObject[0];
+    
     private String name;
     private List<GameObject> gameObjects;
+    private volatile GameObject[] snapshot;
+    private volatile ListView<GameObject> snapshotView;
+    private volatile int epoch;
     private List<GameObject> objectsToAdd;
     private List<GameObject> objectsToRemove;
     private boolean initialized;
-    // 移除未使用的组件索引
+    private final ArchetypeStorage archetypes;
+    private final ComponentIndex componentIndex;
+    private final TagIndex tagIndex;
     
     public Scene(String name) {
         this.name = name;
         this.gameObjects = new ArrayList<>();
+        this.snapshot = NO_OBJECTS;
+        this.snapshotView = new ListView<>(Collections.emptyList());
+        this.epoch = 0;
         this.objectsToAdd = new ArrayList<>();
         this.objectsToRemove = new ArrayList<>();
         this.initialized = false;
-        // 移除组件索引初始化
+        this.archetypes = new ArchetypeStorage();
+        this.componentIndex = new ComponentIndex();
+        this.tagIndex = new TagIndex();
+        this.archetypes.addListener(componentIndex);
+        this.archetypes.addListener(tagIndex);
     }
     
     /**
@@ -40,9 +62,17 @@ public class Scene {
      * 更新场景
      */
     public void update(float deltaTime) {
+        boolean changed = !objectsToAdd.isEmpty() || !objectsToRemove.isEmpty();
+        
         // 添加新对象
         for (GameObject obj : objectsToAdd) {
             gameObjects.add(obj);
+            archetypes.add(obj);
+            tagIndex.add(obj);
+            TransformComponent transform = obj.getComponent(TransformComponent.class);
+            if (transform != null) {
+                transform.resetInterpolation();
+            }
             if (initialized) {
                 obj.initialize();
             }
@@ -51,18 +81,37 @@ public class Scene {
         
         // 移除标记的对象
         for (GameObject obj : objectsToRemove) {
-            gameObjects.remove(obj);
+            if (gameObjects.remove(obj)) {
+                detach(obj);
+            }
         }
         objectsToRemove.clear();
         
-        // 更新所有活跃的游戏对象
-        Iterator<GameObject> iterator = gameObjects.iterator();
-        while (iterator.hasNext()) {
-            GameObject obj = iterator.next();
+        // 清理上一帧被销毁的对象
+        int size = gameObjects.size();
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            GameObject obj = gameObjects.get(read);
             if (obj.isActive()) {
-                obj.update(deltaTime);
+                gameObjects.set(write++, obj);
             } else {
-                iterator.remove();
+                detach(obj);
+            }
+        }
+        if (write < size) {
+            gameObjects.subList(write, size).clear();
+            changed = true;
+        }
+        
+        if (changed) {
+            publishSnapshot();
+        }
+        
+        // 更新所有活跃的游戏对象，遍历的是快照，期间增删对象互不影响
+        GameObject[] objects = snapshot;
+        for (GameObject obj : objects) {
+            if (obj.isActive()) {
+                obj.update(deltaTime);
             }
         }
     }
@@ -71,13 +120,68 @@ public class Scene {
      * 渲染场景
      */
     public void render() {
-        for (GameObject obj : gameObjects) {
+        GameObject[] objects = snapshot;
+        for (GameObject obj : objects) {
             if (obj.isActive()) {
                 obj.render();
             }
         }
     }
     
+    /**
+     * 记录所有变换组件的当前位置，在每个固定步长的逻辑更新前调用
+     */
+    public void storePreviousTransforms() {
+        List<TransformComponent> transforms = getComponents(TransformComponent.class);
+        for (int i = 0; i < transforms.size(); i++) {
+            transforms.get(i).storePreviousPosition();
+        }
+    }
+    
+    /**
+     * 计算所有变换组件的渲染位置，在渲染前调用
+     * @param alpha 当前时刻在前后两个逻辑帧之间的插值系数
+     */
+    public void interpolateTransforms(float alpha) {
+        List<TransformComponent> transforms = getComponents(TransformComponent.class);
+        for (int i = 0; i < transforms.size(); i++) {
+            transforms.get(i).interpolate(alpha);
+        }
+    }
+    
+    /**
+     * 遍历当前快照中所有活跃的对象
+     */
+    public void forEachActive(Consumer<? super GameObject> action) {
+        GameObject[] objects = snapshot;
+        for (GameObject obj : objects) {
+            if (obj.isActive()) {
+                action.accept(obj);
+            }
+        }
+    }
+    
+    /**
+     * 快照版本号，每次场景对象增删生效时递增
+     *
+     * 调用方可以用它判断基于对象列表缓存的数据是否过期。
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+    
+    private void detach(GameObject obj) {
+        archetypes.remove(obj);
+        tagIndex.remove(obj);
+    }
+    
+    private void publishSnapshot() {
+        GameObject[] objects = gameObjects.toArray(NO_OBJECTS);
+        snapshot = objects;
+        snapshotView = new ListView<>(Arrays.asList(objects));
+        epoch++;
+    }
+    
     /**
      * 添加游戏对象到场景
      */
@@ -94,30 +198,63 @@ public class Scene {
     
     /**
      * 根据组件类型查找游戏对象
+     *
+     * 返回增量索引上的只读实时视图，不分配新列表；对象在 destroy() 时立即移出索引，
+     * 遍历视图期间不要销毁对象或增删组件。
+     */
+    public <T extends Component<T>> ListView<GameObject> findGameObjectsByComponent(Class<T> componentType) {
+        return componentIndex.owners(componentType);
+    }
+    
+    /**
+     * 获取所有具有指定组件的游戏对象的该组件
+     *
+     * 与 findGameObjectsByComponent 下标一一对应，同样是只读实时视图。
+     */
+    public <T extends Component<T>> ListView<T> getComponents(Class<T> componentType) {
+        return componentIndex.components(componentType);
+    }
+    
+    /**
+     * 遍历同时拥有两种组件的活跃对象，按原型列直接读取组件
+     */
+    public <A extends Component<A>, B extends Component<B>> void forEach(Class<A> typeA, Class<B> typeB, BiConsumer<A, B> action) {
+        archetypes.forEach(typeA, typeB, action);
+    }
+    
+    /**
+     * 获取指定标签的全部对象
+     *
+     * 返回只读实时视图，本帧内被销毁的对象要到下一次 update 才会移出，遍历时请检查 isActive()。
+     */
+    public ListView<GameObject> findByTag(Tag tag) {
+        return tagIndex.objects(tag);
+    }
+    
+    /**
+     * 获取指定标签的第一个活跃对象
      */
-    public <T extends Component<T>> List<GameObject> findGameObjectsByComponent(Class<T> componentType) {
-        return gameObjects.stream()
-            .filter(obj -> obj.hasComponent(componentType))
-            .collect(Collectors.toList());
+    public GameObject findFirstByTag(Tag tag) {
+        return tagIndex.first(tag);
     }
     
     /**
-     * 获取所有具有指定组件的游戏对象
+     * 获取场景的原型存储
      */
-    public <T extends Component<T>> List<T> getComponents(Class<T> componentType) {
-        return findGameObjectsByComponent(componentType).stream()
-            .map(obj -> obj.getComponent(componentType))
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
+    public ArchetypeStorage getArchetypes() {
+        return archetypes;
     }
     
     /**
      * 清空场景
      */
     public void clear() {
+        archetypes.clear();
+        tagIndex.clear();
         gameObjects.clear();
         objectsToAdd.clear();
         objectsToRemove.clear();
+        publishSnapshot();
     }
     
     /**
@@ -129,9 +266,11 @@ public class Scene {
     
     /**
      * 获取所有游戏对象
+     *
+     * 返回当前快照的只读视图，不做拷贝；可按下标遍历，之后的对象增删不会影响它。
      */
-    public List<GameObject> getGameObjects() {
-        return new ArrayList<>(gameObjects);
+    public ListView<GameObject> getGameObjects() {
+        return snapshotView;
     }
     
     // 移除具体游戏逻辑，让子类实现
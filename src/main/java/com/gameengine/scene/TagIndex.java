@@ -0,0 +1,99 @@
+package com.gameengine.scene;
+
+import com.gameengine.core.ArchetypeStorage;
+import com.gameengine.core.GameObject;
+import com.gameengine.core.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按标签分桶的对象索引，桶下标即标签ID
+ *
+ * 对象进出场景由 Scene 在更新时直接维护；对象在场景中改标签时，
+ * 通过原型存储的回调迁移到新桶。每个对象在桶中的下标记在 GameObject 上，移除时用桶内
+ * 最后一个对象填补空位，因此桶内顺序不稳定。
+ */
+final class TagIndex implements ArchetypeStorage.Listener {
+    private final List<List<GameObject>> buckets = new ArrayList<>();
+    private final List<ListView<GameObject>> views = new ArrayList<>();
+
+    void add(GameObject obj) {
+        if (obj.getTagSlot() >= 0) return;
+        insert(obj, obj.getTag());
+    }
+
+    void remove(GameObject obj) {
+        extract(obj, obj.getTag());
+    }
+
+    void clear() {
+        for (List<GameObject> bucket : buckets) {
+            for (int i = 0; i < bucket.size(); i++) {
+                bucket.get(i).setTagSlot(-1);
+            }
+            bucket.clear();
+        }
+    }
+
+    @Override
+    public void onEntityRetagged(GameObject obj, Tag oldTag) {
+        if (extract(obj, oldTag)) {
+            insert(obj, obj.getTag());
+        }
+    }
+
+    /**
+     * 指定标签的全部对象（只读实时视图）
+     */
+    ListView<GameObject> objects(Tag tag) {
+        bucket(tag);
+        return views.get(tag.getId());
+    }
+
+    /**
+     * 指定标签的第一个活跃对象
+     */
+    GameObject first(Tag tag) {
+        List<GameObject> bucket = bucket(tag);
+        for (int i = 0; i < bucket.size(); i++) {
+            GameObject obj = bucket.get(i);
+            if (obj.isActive()) return obj;
+        }
+        return null;
+    }
+
+    private void insert(GameObject obj, Tag tag) {
+        List<GameObject> bucket = bucket(tag);
+        obj.setTagSlot(bucket.size());
+        bucket.add(obj);
+    }
+
+    /**
+     * 交换删除，返回对象是否在索引中
+     */
+    private boolean extract(GameObject obj, Tag tag) {
+        int index = obj.getTagSlot();
+        if (index < 0) return false;
+        obj.setTagSlot(-1);
+        List<GameObject> bucket = bucket(tag);
+        int last = bucket.size() - 1;
+        if (index != last) {
+            GameObject moved = bucket.get(last);
+            bucket.set(index, moved);
+            moved.setTagSlot(index);
+        }
+        bucket.remove(last);
+        return true;
+    }
+
+    private List<GameObject> bucket(Tag tag) {
+        int id = tag.getId();
+        while (buckets.size() <= id) {
+            List<GameObject> bucket = new ArrayList<>();
+            buckets.add(bucket);
+            views.add(new ListView<>(bucket));
+        }
+        return buckets.get(id);
+    }
+}
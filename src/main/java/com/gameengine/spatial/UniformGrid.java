@@ -0,0 +1,226 @@
+package com.gameengine.spatial;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 均匀网格空间哈希，用于快速查找某个区域内的物体
+ *
+ * 每个物体按 AABB 覆盖的格子登记一次，格子坐标哈希到固定大小的桶表中。
+ * 所有数据放在基本类型数组里，clear() 只重置计数和代数，重建网格不产生垃圾；
+ * 适合每帧 clear + insert 的用法。
+ */
+public class UniformGrid<T> {
+    private final float cellSize;
+    private final float inverseCellSize;
+    private final int tableMask;
+
+    // 桶表：cellHead[h] 在 cellGeneration[h] == generation 时有效
+    private final int[] cellHead;
+    private final int[] cellGeneration;
+    private int generation;
+
+    // 物体数据
+    private Object[] items;
+    private float[] minX, minY, maxX, maxY;
+    private int[] queryStamp;
+    private int itemCount;
+    private int queryId;
+
+    // 格子登记链表
+    private int[] entryItem;
+    private int[] entryNext;
+    private int entryCount;
+
+    public UniformGrid(float cellSize) {
+        this(cellSize, 1024);
+    }
+
+    /**
+     * @param cellSize 格子边长
+     * @param tableSize 哈希桶数量，会向上取整为2的幂
+     */
+    public UniformGrid(float cellSize, int tableSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0f / cellSize;
+        int size = Integer.highestOneBit(Math.max(16, tableSize - 1)) << 1;
+        this.tableMask = size - 1;
+        this.cellHead = new int[size];
+        this.cellGeneration = new int[size];
+        this.generation = 1;
+
+        int capacity = 64;
+        this.items = new Object[capacity];
+        this.minX = new float[capacity];
+        this.minY = new float[capacity];
+        this.maxX = new float[capacity];
+        this.maxY = new float[capacity];
+        this.queryStamp = new int[capacity];
+        this.entryItem = new int[capacity * 2];
+        this.entryNext = new int[capacity * 2];
+    }
+
+    /**
+     * 清空网格
+     */
+    public void clear() {
+        Arrays.fill(items, 0, itemCount, null);
+        itemCount = 0;
+        entryCount = 0;
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(cellGeneration, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * 登记一个物体，(x, y) 为左上角
+     */
+    public void insert(T item, float x, float y, float width, float height) {
+        if (itemCount == items.length) {
+            growItems();
+        }
+        int index = itemCount++;
+        items[index] = item;
+        minX[index] = x;
+        minY[index] = y;
+        maxX[index] = x + width;
+        maxY[index] = y + height;
+        queryStamp[index] = 0;
+
+        int cx0 = cell(x);
+        int cy0 = cell(y);
+        int cx1 = cell(x + width);
+        int cy1 = cell(y + height);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                link(hash(cx, cy), index);
+            }
+        }
+    }
+
+    /**
+     * 查询与矩形相交（边界重合不算）的物体，结果追加到 out，返回找到的数量
+     */
+    public int queryAabb(float x, float y, float width, float height, List<? super T> out) {
+        float qMaxX = x + width;
+        float qMaxY = y + height;
+        int stamp = nextQueryId();
+        int found = 0;
+
+        int cx0 = cell(x);
+        int cy0 = cell(y);
+        int cx1 = cell(qMaxX);
+        int cy1 = cell(qMaxY);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int h = hash(cx, cy);
+                if (cellGeneration[h] != generation) continue;
+                for (int e = cellHead[h]; e >= 0; e = entryNext[e]) {
+                    int i = entryItem[e];
+                    if (queryStamp[i] == stamp) continue;
+                    queryStamp[i] = stamp;
+                    if (x < maxX[i] && qMaxX > minX[i] && y < maxY[i] && qMaxY > minY[i]) {
+                        out.add(item(i));
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 查询 AABB 与圆相交的物体，结果追加到 out，返回找到的数量
+     */
+    public int queryRadius(float centerX, float centerY, float radius, List<? super T> out) {
+        float radiusSq = radius * radius;
+        int stamp = nextQueryId();
+        int found = 0;
+
+        int cx0 = cell(centerX - radius);
+        int cy0 = cell(centerY - radius);
+        int cx1 = cell(centerX + radius);
+        int cy1 = cell(centerY + radius);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int h = hash(cx, cy);
+                if (cellGeneration[h] != generation) continue;
+                for (int e = cellHead[h]; e >= 0; e = entryNext[e]) {
+                    int i = entryItem[e];
+                    if (queryStamp[i] == stamp) continue;
+                    queryStamp[i] = stamp;
+                    float nearestX = Math.max(minX[i], Math.min(centerX, maxX[i]));
+                    float nearestY = Math.max(minY[i], Math.min(centerY, maxY[i]));
+                    float dx = centerX - nearestX;
+                    float dy = centerY - nearestY;
+                    if (dx * dx + dy * dy <= radiusSq) {
+                        out.add(item(i));
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int index) {
+        return (T) items[index];
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private int hash(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & tableMask;
+    }
+
+    private void link(int h, int itemIndex) {
+        if (entryCount == entryItem.length) {
+            entryItem = Arrays.copyOf(entryItem, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        int e = entryCount++;
+        entryItem[e] = itemIndex;
+        if (cellGeneration[h] != generation) {
+            cellGeneration[h] = generation;
+            entryNext[e] = -1;
+        } else {
+            entryNext[e] = cellHead[h];
+        }
+        cellHead[h] = e;
+    }
+
+    private int nextQueryId() {
+        queryId++;
+        if (queryId == 0) {
+            Arrays.fill(queryStamp, 0);
+            queryId = 1;
+        }
+        return queryId;
+    }
+
+    private void growItems() {
+        int capacity = items.length * 2;
+        items = Arrays.copyOf(items, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        queryStamp = Arrays.copyOf(queryStamp, capacity);
+    }
+}